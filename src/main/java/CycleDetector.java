@@ -1,4 +1,6 @@
-import java.util.LinkedList;
+import util.CompressedGraph;
+
+import java.util.Arrays;
 
 /**
  * Detects a cycle in a directed, weighted graph.
@@ -6,30 +8,62 @@ import java.util.LinkedList;
 public class CycleDetector {
 
     /**
-     * Adjacency list
+     * Collects edges until the graph is frozen
+     */
+    private CompressedGraph.Builder builder;
+    /**
+     * Adjacency in compressed sparse row format, built on first query
+     */
+    private CompressedGraph graph;
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+    /**
+     * Visited stamp per node, node is visited in current query if equal to epoch
      */
-    public LinkedList<Integer>[] list;
+    private int[] visited;
     /**
-     * Graph visited flag
+     * In process stamp per node, node is in process in current query if equal to epoch
      */
-    private boolean[] visited;
+    private int[] inProcess;
     /**
-     * Graph in process flag
+     * Current query generation
      */
-    private boolean[] inProcess;
+    private int epoch = 0;
     /**
-     * Flag if graph has cycle
+     * Flag if last query found a cycle
      */
     boolean hasCycle = false;
+    /**
+     * Explicit dfs stack, reused for every traversal
+     */
+    private int[] stack;
+    /**
+     * Index of next edge to process for every node on the stack
+     */
+    private int[] nextEdge;
+    /**
+     * Nodes in the order they are finished by the dfs, null if not recorded
+     */
+    private int[] finished;
+    /**
+     * Number of finished nodes
+     */
+    private int finishedCount;
+    /**
+     * Stack range holding the cycle found by the last dfs
+     */
+    private int cycleStart;
+    private int cycleEnd;
 
     public CycleDetector(int nodeCount) {
-        this.list = new LinkedList[nodeCount];
-        this.visited = new boolean[nodeCount];
-        this.inProcess = new boolean[nodeCount];
-
-        for (int i = 0; i < nodeCount; i++) {
-            this.list[i] = new LinkedList<>();
-        }
+        this.builder = new CompressedGraph.Builder(nodeCount, false);
+        this.nodeCount = nodeCount;
+        this.visited = new int[nodeCount];
+        this.inProcess = new int[nodeCount];
+        this.stack = new int[nodeCount];
+        this.nextEdge = new int[nodeCount];
     }
 
     /**
@@ -37,11 +71,12 @@ public class CycleDetector {
      * @return
      */
     public boolean hasCycle() {
+        nextEpoch();
 
         int i = 0;
         // Check possible cycle for every unprocessed node
         while (!hasCycle && i < getNumberOfNodes()) {
-            if (!visited[i]) {
+            if (visited[i] != epoch) {
                 hasCycle(i);
             }
             i++;
@@ -50,42 +85,268 @@ public class CycleDetector {
         return hasCycle;
     }
 
-    private boolean hasCycle(int cur) {
-        visited[cur] = true;
-        inProcess[cur] = true;
-
-        // Check for every neighbour if cycle results
-        for (int index = 0; index < getNumberOfNeighbours(cur); index++) {
-            int neighbour = getNeighbour(cur, index);
-             if (!visited[neighbour]) {
-                // Check recursive for cycles
-                hasCycle(neighbour);
-            } else if (inProcess[neighbour]) {
-                // Cycle found
-                hasCycle = true;
+    /**
+     * Checks if the subgraph reachable from root contains a cycle.
+     * Only touches the reachable nodes and does not allocate.
+     *
+     * @param root Start node
+     * @return If reachable subgraph has cycle
+     */
+    public boolean hasCycleFrom(int root) {
+        nextEpoch();
+        return hasCycle(root);
+    }
+
+    /**
+     * Checks if the subgraph reachable from any of the roots contains a cycle.
+     * Only touches the reachable nodes and does not allocate.
+     *
+     * @param roots Start nodes
+     * @return If reachable subgraph has cycle
+     */
+    public boolean hasCycle(int[] roots) {
+        nextEpoch();
+
+        for (int i = 0; i < roots.length && !hasCycle; i++) {
+            if (visited[roots[i]] != epoch) {
+                hasCycle(roots[i]);
+            }
+        }
+
+        return hasCycle;
+    }
+
+    /**
+     * Sorts the graph topologically using a single depth first search.
+     *
+     * @return Topological order or, if graph has a cycle, the nodes of one cycle
+     */
+    public Traversal traverse() {
+        nextEpoch();
+        finished = new int[nodeCount];
+        finishedCount = 0;
+
+        for (int i = 0; i < nodeCount && !hasCycle; i++) {
+            if (visited[i] != epoch) {
+                hasCycle(i);
             }
         }
 
-        inProcess[cur] = false;
+        Traversal traversal;
+        if (hasCycle) {
+            traversal = new Traversal(null, cycle());
+        } else {
+            // Reverse finishing order is a topological order
+            for (int i = 0, j = nodeCount - 1; i < j; i++, j--) {
+                int tmp = finished[i];
+                finished[i] = finished[j];
+                finished[j] = tmp;
+            }
+            traversal = new Traversal(finished, null);
+        }
+        finished = null;
+
+        return traversal;
+    }
+
+    /**
+     * Sorts the graph topologically using Kahn's algorithm, processing nodes in
+     * the order their in-degree drops to zero.
+     *
+     * @return Topological order or, if graph has a cycle, the nodes of one cycle
+     */
+    public Traversal traverseKahn() {
+        CompressedGraph graph = graph();
+
+        // Count incoming edges per node
+        int[] inDegree = new int[nodeCount];
+        for (int edge = 0; edge < graph.getNumberOfEdges(); edge++) {
+            inDegree[graph.target(edge)]++;
+        }
+
+        // Order array doubles as queue
+        int[] order = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (inDegree[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            int cur = order[head++];
+            for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                int neighbour = graph.target(edge);
+                if (--inDegree[neighbour] == 0) {
+                    order[tail++] = neighbour;
+                }
+            }
+        }
+
+        if (tail == nodeCount) {
+            // All nodes removed, no cycle
+            hasCycle = false;
+            return new Traversal(order, null);
+        }
+
+        // Remaining nodes contain a cycle and can only reach remaining nodes.
+        // Search it with a dfs that skips the removed nodes.
+        nextEpoch();
+        for (int i = 0; i < tail; i++) {
+            visited[order[i]] = epoch;
+        }
+        for (int i = 0; i < nodeCount && !hasCycle; i++) {
+            if (visited[i] != epoch) {
+                hasCycle(i);
+            }
+        }
+
+        return new Traversal(null, cycle());
+    }
+
+    /**
+     * Starts a new query. Stamps of previous queries become invalid,
+     * so the flags do not have to be cleared.
+     */
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // Stamps would overflow, start again
+            Arrays.fill(visited, 0);
+            Arrays.fill(inProcess, 0);
+            epoch = 1;
+        }
+        hasCycle = false;
+    }
+
+    /**
+     * @return Nodes of the cycle found by the last dfs
+     */
+    private int[] cycle() {
+        return Arrays.copyOfRange(stack, cycleStart, cycleEnd);
+    }
+
+    /**
+     * Iterative depth first search starting at given node.
+     * Uses an explicit stack instead of recursion, so the depth of the graph
+     * is not limited by the call stack.
+     *
+     * @param root Start node
+     * @return If cycle has been found
+     */
+    private boolean hasCycle(int root) {
+        CompressedGraph graph = graph();
+
+        int top = 0;
+        stack[top] = root;
+        nextEdge[top] = graph.firstEdge(root);
+        visited[root] = epoch;
+        inProcess[root] = epoch;
+
+        while (top >= 0) {
+            int cur = stack[top];
+            int edge = nextEdge[top];
+
+            if (edge < graph.endEdge(cur)) {
+                // Continue with next neighbour of current node
+                nextEdge[top]++;
+                int neighbour = graph.target(edge);
+                if (visited[neighbour] != epoch) {
+                    // Descend into neighbour
+                    top++;
+                    stack[top] = neighbour;
+                    nextEdge[top] = graph.firstEdge(neighbour);
+                    visited[neighbour] = epoch;
+                    inProcess[neighbour] = epoch;
+                } else if (inProcess[neighbour] == epoch) {
+                    // Cycle found, it consists of the stack from neighbour to top
+                    cycleStart = top;
+                    while (stack[cycleStart] != neighbour) {
+                        cycleStart--;
+                    }
+                    cycleEnd = top + 1;
+
+                    // Nodes still in process are released by the next epoch
+                    hasCycle = true;
+                    return true;
+                }
+            } else {
+                // All neighbours processed
+                inProcess[cur] = 0;
+                if (finished != null) {
+                    finished[finishedCount++] = cur;
+                }
+                top--;
+            }
+        }
 
         return hasCycle;
     }
 
+    /**
+     * Freezes the collected edges into the compressed adjacency on first use.
+     *
+     * @return Compressed adjacency
+     */
+    private CompressedGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            // Release edge buffers
+            builder = null;
+        }
+        return graph;
+    }
+
     public int getNumberOfNodes() {
-        return list.length;
+        return nodeCount;
     }
 
     public int getNumberOfNeighbours(int cur) {
-        return list[cur].size();
+        return graph().getNumberOfNeighbours(cur);
     }
 
     public int getNeighbour(int cur, int neighbour) {
-        return list[cur].get(neighbour);
+        CompressedGraph graph = graph();
+        return graph.target(graph.firstEdge(cur) + neighbour);
     }
 
     public void addEdge(int nodeFrom, int nodeTo, int weight) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
         // Weight is no saved, as not used for cycle detection
-        this.list[nodeFrom].add(nodeTo);
+        this.builder.addEdge(nodeFrom, nodeTo);
     }
 
+    /**
+     * Result of a traversal, either a topological order or a cycle.
+     */
+    public static class Traversal {
+        private final int[] order;
+        private final int[] cycle;
+
+        Traversal(int[] order, int[] cycle) {
+            this.order = order;
+            this.cycle = cycle;
+        }
+
+        public boolean hasCycle() {
+            return cycle != null;
+        }
+
+        /**
+         * @return Nodes in topological order, null if graph has a cycle
+         */
+        public int[] topologicalOrder() {
+            return order;
+        }
+
+        /**
+         * @return Nodes v0, ..., vm of a cycle with edges vi -> vi+1 and vm -> v0, null if graph is acyclic
+         */
+        public int[] cycle() {
+            return cycle;
+        }
+    }
 }
@@ -0,0 +1,219 @@
+import util.ResidualGraph;
+
+import java.util.Arrays;
+
+/**
+ * Calculates max flow in a s/t network with Dinic's algorithm. Each phase builds the
+ * level graph of shortest residual paths with one BFS from s and saturates it with a
+ * blocking flow, so only O(n) phases are needed instead of one BFS per augmenting path.
+ * A current arc per node skips arcs that have become useless within the phase.
+ * Networks with unit capacities need O(min(n^(2/3), m^(1/2))) phases, bipartite
+ * matchings O(n^(1/2)).
+ */
+public class Dinic {
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private ResidualGraph.Builder builder;
+    /**
+     * Residual network with paired reverse arcs
+     */
+    private ResidualGraph graph;
+
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+
+    /**
+     * BFS distance from s per node, -1 if not reached or dead end in the current phase
+     */
+    private int[] level;
+    /**
+     * Next arc to try per node within the current phase
+     */
+    private int[] currentArc;
+    /**
+     * BFS queue, every node is enqueued at most once per phase
+     */
+    private int[] queue;
+    /**
+     * Arcs of the path searched by the blocking flow
+     */
+    private int[] path;
+
+    /**
+     * Number of phases of the last calculation
+     */
+    private int phases;
+
+    public Dinic(int nodeCount) {
+        this.builder = new ResidualGraph.Builder(nodeCount);
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Calculates max flow in a s/t network, starting without flow.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return Maximal possible flow
+     */
+    public double maxFlow(int s, int t) {
+        ResidualGraph graph = graph();
+        graph.clearFlow();
+        phases = 0;
+        // No flow in empty graph or from a node to itself
+        if (nodeCount == 0 || s == t) return 0;
+
+        double maxFlow = 0;
+        while (buildLevels(s, t)) {
+            phases++;
+            for (int node = 0; node < nodeCount; node++) {
+                currentArc[node] = graph.firstArc(node);
+            }
+            maxFlow += blockingFlow(s, t);
+        }
+        return maxFlow;
+    }
+
+    /**
+     * Assigns BFS levels from s over arcs with residual capacity.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return If t is reachable
+     */
+    private boolean buildLevels(int s, int t) {
+        Arrays.fill(level, -1);
+        level[s] = 0;
+        queue[0] = s;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int cur = queue[head++];
+            if (cur == t) {
+                // Nodes beyond the level of t are not on shortest paths
+                break;
+            }
+            for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+                int other = graph.target(arc);
+                if (level[other] == -1 && graph.residual(arc) > 0) {
+                    level[other] = level[cur] + 1;
+                    queue[tail++] = other;
+                }
+            }
+        }
+        return level[t] != -1;
+    }
+
+    /**
+     * Saturates the level graph with an iterative DFS. After an augmentation the search
+     * continues from the tail of the first saturated arc, dead ends are removed from the
+     * level graph when the search retreats.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return Flow pushed in this phase
+     */
+    private double blockingFlow(int s, int t) {
+        double total = 0;
+        int depth = 0;
+        int cur = s;
+
+        while (true) {
+            if (cur == t) {
+                // Smallest residual capacity along path, first arc with it is saturated
+                int saturated = 0;
+                for (int hop = 1; hop < depth; hop++) {
+                    if (graph.residual(path[hop]) < graph.residual(path[saturated])) {
+                        saturated = hop;
+                    }
+                }
+                double min = graph.residual(path[saturated]);
+                for (int hop = 0; hop < depth; hop++) {
+                    graph.push(path[hop], min);
+                }
+                total += min;
+
+                // Retreat to tail of first saturated arc
+                depth = saturated;
+                cur = graph.source(path[depth]);
+                continue;
+            }
+
+            // Advance over the current arc into the next level
+            int end = graph.endArc(cur);
+            int arc = currentArc[cur];
+            while (arc < end && (graph.residual(arc) <= 0 || level[graph.target(arc)] != level[cur] + 1)) {
+                arc++;
+            }
+            currentArc[cur] = arc;
+
+            if (arc < end) {
+                path[depth++] = arc;
+                cur = graph.target(arc);
+            } else if (cur == s) {
+                // Level graph saturated
+                return total;
+            } else {
+                // Dead end, retreat and skip the arc leading here
+                level[cur] = -1;
+                cur = graph.source(path[--depth]);
+                currentArc[cur]++;
+            }
+        }
+    }
+
+    /**
+     * Freezes the collected edges into the residual graph on first use.
+     *
+     * @return Residual graph
+     */
+    private ResidualGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            level = new int[nodeCount];
+            currentArc = new int[nodeCount];
+            queue = new int[nodeCount];
+            path = new int[nodeCount];
+            // Release edge buffers
+            builder = null;
+        }
+        return graph;
+    }
+
+    /**
+     * @param edge Edge in insertion order
+     * @return Flow over edge after the last calculation
+     */
+    public double flow(int edge) {
+        ResidualGraph graph = graph();
+        return graph.flow(graph.arc(edge));
+    }
+
+    /**
+     * @return Number of phases of the last calculation
+     */
+    public int getNumberOfPhases() {
+        return phases;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge.
+     *
+     * @return Id of edge, edges are numbered in insertion order
+     */
+    public int addEdge(int nodeFrom, int nodeTo, int capacity) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        return this.builder.addEdge(nodeFrom, nodeTo, capacity);
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Costs of all shortest paths of a graph, calculated once and queried in constant time.
+ * Holds the number of pivots v0, ..., vk-1 used as possible hops, so a calculation
+ * can be resumed with more pivots without repeating the earlier ones.
+ * Instances are not modified after construction.
+ */
+public class DistanceMatrix {
+
+    /**
+     * Number of nodes
+     */
+    private final int nodeCount;
+    /**
+     * Costs in row-major order, costs from a to b are stored at a * nodeCount + b
+     */
+    private final double[] distances;
+    /**
+     * Next hop per pair, null if paths are not tracked
+     */
+    private final FloydWarshall.Successors successors;
+    /**
+     * Number of pivots used as possible hops
+     */
+    private final int pivots;
+    /**
+     * Flag if negative cycle has been found
+     */
+    private final boolean negativeCycle;
+    /**
+     * Settings used when resuming the calculation
+     */
+    private final int tileSize;
+    private final ForkJoinPool pool;
+
+    DistanceMatrix(int nodeCount, double[] distances, FloydWarshall.Successors successors, int pivots,
+                   boolean negativeCycle, int tileSize, ForkJoinPool pool) {
+        this.nodeCount = nodeCount;
+        this.distances = distances;
+        this.successors = successors;
+        this.pivots = pivots;
+        this.negativeCycle = negativeCycle;
+        this.tileSize = tileSize;
+        this.pool = pool;
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Costs of shortest path between i and j, infinity if j is not reachable
+     */
+    public double distance(int i, int j) {
+        return distances[i * nodeCount + j];
+    }
+
+    /**
+     * Returns nodes of the shortest path between i and j.
+     * Requires path tracking to be enabled for the calculation.
+     *
+     * @param i From node
+     * @param j To node
+     * @return Nodes i, ..., j of the path, empty if j is not reachable
+     */
+    public int[] path(int i, int j) {
+        if (successors == null) {
+            throw new IllegalStateException("Path tracking not enabled");
+        }
+
+        // Count hops first to allocate the path once
+        int length = 1;
+        for (int cur = i; cur != j; cur = successors.get(cur * nodeCount + j)) {
+            if (cur == FloydWarshall.Successors.NONE) {
+                return new int[0];
+            }
+            if (length > nodeCount) {
+                throw new IllegalStateException(FloydWarshall.NEGATIVE_CYCLE);
+            }
+            length++;
+        }
+
+        int[] path = new int[length];
+        int cur = i;
+        for (int hop = 0; hop < length; hop++) {
+            path[hop] = cur;
+            cur = successors.get(cur * nodeCount + j);
+        }
+        return path;
+    }
+
+    /**
+     * Continues the calculation using v0, ..., vk-1 as possible hops.
+     * Only the pivots not used yet are processed, this result stays unchanged.
+     *
+     * @param k Nodes v0, ... , vk-1 that can be used for hops
+     * @return Costs of all shortest paths using the given pivots
+     */
+    public DistanceMatrix resume(int k) {
+        int target = Math.min(k, nodeCount);
+        if (target < pivots) {
+            throw new IllegalArgumentException("Pivots can not be removed: " + k + " < " + pivots);
+        }
+        if (target == pivots || negativeCycle) {
+            // Nothing to do, costs with a negative cycle do not converge
+            return this;
+        }
+
+        double[] resumed = distances.clone();
+        FloydWarshall.Successors resumedSuccessors = successors == null ? null : successors.copy();
+        boolean valid = new FloydWarshall.Relaxation(resumed, resumedSuccessors, nodeCount, tileSize, pool)
+                .run(pivots, target);
+        return new DistanceMatrix(nodeCount, resumed, resumedSuccessors, target, !valid, tileSize, pool);
+    }
+
+    /**
+     * Updates all costs after inserting the edge u -> v or lowering its costs to w.
+     * A shortest path using the edge consists of a shortest path to u, the edge and a shortest
+     * path from v, so every pair is checked once. Requires all nodes to be used as hops.
+     * Raising costs of an edge may lengthen paths and requires a new calculation.
+     *
+     * @param u From node
+     * @param v To node
+     * @param w New costs of edge
+     * @return Costs of all shortest paths with the edge, this result stays unchanged
+     */
+    public DistanceMatrix withEdge(int u, int v, double w) {
+        if (pivots < nodeCount) {
+            throw new IllegalStateException("Edges can only be added to complete results: " + pivots + " < "
+                    + nodeCount);
+        }
+        if (negativeCycle || w >= distance(u, v)) {
+            // Edge does not shorten any path
+            return this;
+        }
+        // A loop is a cycle by itself, even if the diagonal was never set
+        double back = u == v ? 0 : distance(v, u);
+        if (w + back < 0) {
+            // Edge closes a negative cycle, costs do not converge
+            return new DistanceMatrix(nodeCount, distances, successors, pivots, true, tileSize, pool);
+        }
+
+        // Without a new negative cycle, row v and column u only change on the diagonal
+        double[] updated = distances.clone();
+        FloydWarshall.Successors updatedSuccessors = successors == null ? null : successors.copy();
+        int fromV = v * nodeCount;
+        for (int i = 0; i < nodeCount; i++) {
+            int row = i * nodeCount;
+            // Paths from u start with the edge itself
+            double toU = i == u ? 0 : updated[row + u];
+            if (toU == Double.POSITIVE_INFINITY) {
+                // Edge not reachable from i
+                continue;
+            }
+            double toV = toU + w;
+            int hop = updatedSuccessors == null ? -1 : i == u ? v : updatedSuccessors.get(row + u);
+            // The path to v itself, the diagonal of v need not be 0
+            if (toV < updated[row + v]) {
+                updated[row + v] = toV;
+                if (updatedSuccessors != null) {
+                    updatedSuccessors.set(row + v, hop);
+                }
+            }
+            if (updatedSuccessors == null) {
+                FloydWarshall.relaxRow(updated, row, toV, fromV, nodeCount);
+            } else {
+                FloydWarshall.relaxRow(updated, updatedSuccessors, row, toV, hop, fromV, nodeCount);
+            }
+        }
+        return new DistanceMatrix(nodeCount, updated, updatedSuccessors, pivots, false, tileSize, pool);
+    }
+
+    public boolean hasNegativeCycle() {
+        return negativeCycle;
+    }
+
+    public boolean hasPaths() {
+        return successors != null;
+    }
+
+    /**
+     * @return Number of pivots v0, ..., vk-1 used as possible hops
+     */
+    public int getPivots() {
+        return pivots;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+}
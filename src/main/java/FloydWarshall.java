@@ -1,3 +1,8 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
 /**
  * Calcualtes shortest paths in a directed, weighted graph.
  */
@@ -6,32 +11,101 @@ public class FloydWarshall {
     public static final String NEGATIVE_CYCLE = "neg.Cycle";
 
     /**
-     * Adjacency matrix
+     * Default edge length of the square tiles the matrix is processed in.
+     * Three tiles of doubles fit into the L2 cache.
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * Adjacency matrix in row-major order, costs from a to b are stored at a * nodeCount + b
      */
-    public double[][] matrix;
+    public double[] matrix;
 
     /**
      * Number of edges
      */
     public int edgeCount = 0;
 
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+
+    /**
+     * Edge length of the tiles
+     */
+    private int tileSize;
+
+    /**
+     * Pool relaxing independent tiles in parallel, null for sequential execution
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Flag if successors are maintained for path reconstruction
+     */
+    private boolean pathTracking = false;
+
+    /**
+     * Result of the last calculation, null if edges changed since
+     */
+    private DistanceMatrix result;
+
     public FloydWarshall(int nodeCount){
-        this.matrix = new double[nodeCount][nodeCount];
+        this(nodeCount, DEFAULT_TILE_SIZE);
+    }
+
+    public FloydWarshall(int nodeCount, int tileSize){
+        this(nodeCount, tileSize, null);
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param tileSize Edge length of the tiles
+     * @param pool Pool relaxing independent tiles in parallel, null for sequential execution
+     */
+    public FloydWarshall(int nodeCount, int tileSize, ForkJoinPool pool){
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        this.nodeCount = nodeCount;
+        this.tileSize = tileSize;
+        this.pool = pool;
+        this.matrix = new double[matrixSize(nodeCount)];
+    }
+
+    /**
+     * Number of entries of a matrix with a row and a column per node.
+     *
+     * @param nodeCount Number of nodes
+     * @return Number of pairs of nodes
+     * @throws IllegalArgumentException if the pairs do not fit into an array
+     */
+    static int matrixSize(int nodeCount) {
+        long size = (long) nodeCount * nodeCount;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many nodes for a matrix: " + nodeCount);
+        }
+        return (int) size;
     }
 
     /**
      * Returns costs of shortest path between i and j, using v0, ..., vk-1 as possible hops.
+     * A negative entry on the diagonal is a negative cycle of one edge. It is reported for
+     * every k, also for k = 0, where no hops are used.
+     *
      * @param i From node
      * @param j To node
      * @param k Nodes v0, ... , vk-1 that can be used for hops
      * @return Costs of shortest path or "Neg.Cycle" if negative cycle detected
      */
     public String shortestPath(int i, int j, int k) {
+        DistanceMatrix distances = distances(k);
 
-        if(floydWarshall(k)){
+        if(!distances.hasNegativeCycle()){
             // No negative cycles
             if(getNumberOfNodes() > 0 ){
-                return String.valueOf(matrix[i][j]);
+                return String.valueOf(distances.distance(i, j));
             } else {
                 // No node results in no path
                 return String.valueOf(0D);
@@ -43,38 +117,592 @@ public class FloydWarshall {
     }
 
     /**
-     * Calculates matrix using v0, ..., vk-1 as possible hops
+     * Calculates costs of all shortest paths using v0, ..., vk-1 as possible hops.
+     * The adjacency matrix is not modified. If the last result used at most k pivots,
+     * it is resumed instead of calculated from scratch. If all nodes can be used as hops
+     * and the graph is sparse, Johnson's algorithm is used instead.
+     *
      * @param k Nodes v0, ... , vk-1 that can be used for hops
-     * @return If matrix is valid, or if negative cycle has been found
+     * @return Costs of all shortest paths
      */
-    private boolean floydWarshall(int k) {
-        int nodeCount = getNumberOfNodes();
-        for (int a = 0; a < k; a++) {
-            for (int b = 0; b < nodeCount; b++) {
-                for (int c = 0; c < nodeCount; c++) {
-                    if (matrix[b][c] > matrix[b][a] + matrix[a][c]) {
-                        // Adjust costs
-                        matrix[b][c] = matrix[b][a] + matrix[a][c];
-
-                        // Check for negative cycles
-                        if(c == b && matrix[b][c] < 0){
-                            return false;
-                        }
+    public DistanceMatrix distances(int k) {
+        int pivots = Math.min(k, nodeCount);
+
+        if (result != null && result.getPivots() <= pivots && (!pathTracking || result.hasPaths())) {
+            result = result.resume(pivots);
+        } else if (pivots == nodeCount && prefersJohnson()) {
+            result = johnson();
+        } else {
+            double[] distances = matrix.clone();
+            Successors successors = pathTracking ? Successors.of(distances, nodeCount) : null;
+            boolean valid = new Relaxation(distances, successors, nodeCount, tileSize, pool).run(0, pivots);
+            result = new DistanceMatrix(nodeCount, distances, successors, pivots, !valid, tileSize, pool);
+        }
+
+        return result;
+    }
+
+    /**
+     * Min-plus update of a row segment: row[c] = min(row[c], toPivot + pivotRow[c]).
+     * The loop has no early exit and keeps the smaller costs with a select instead of
+     * an if statement. Negative cycles are checked in a separate pass over the diagonal.
+     *
+     * @param matrix Matrix containing both segments
+     * @param row Offset of the updated segment
+     * @param toPivot Costs from row node to pivot
+     * @param pivotRow Offset of the pivot's segment
+     * @param length Length of both segments
+     */
+    static void relaxRow(double[] matrix, int row, double toPivot, int pivotRow, int length) {
+        relaxRow(matrix, row, toPivot, matrix, pivotRow, length);
+    }
+
+    /**
+     * Min-plus update of a row segment with a segment of another matrix:
+     * row[c] = min(row[c], toPivot + pivotRow[c]).
+     *
+     * @param matrix Matrix containing the updated segment
+     * @param row Offset of the updated segment
+     * @param toPivot Costs from row node to pivot
+     * @param pivotMatrix Matrix containing the pivot's segment
+     * @param pivotRow Offset of the pivot's segment
+     * @param length Length of both segments
+     */
+    static void relaxRow(double[] matrix, int row, double toPivot, double[] pivotMatrix, int pivotRow, int length) {
+        for (int c = 0; c < length; c++) {
+            double costs = toPivot + pivotMatrix[pivotRow + c];
+            double current = matrix[row + c];
+            matrix[row + c] = costs < current ? costs : current;
+        }
+    }
+
+    /**
+     * Min-plus update of a row segment, maintaining the successors of the updated pairs.
+     *
+     * @param matrix Matrix containing both segments
+     * @param successors Successors of the matrix
+     * @param row Offset of the updated segment
+     * @param toPivot Costs from row node to pivot
+     * @param hop Successor of row node on the path to pivot
+     * @param pivotRow Offset of the pivot's segment
+     * @param length Length of both segments
+     */
+    static void relaxRow(double[] matrix, Successors successors, int row, double toPivot, int hop, int pivotRow,
+                         int length) {
+        for (int c = 0; c < length; c++) {
+            double costs = toPivot + matrix[pivotRow + c];
+            if (costs < matrix[row + c]) {
+                matrix[row + c] = costs;
+                successors.set(row + c, hop);
+            }
+        }
+    }
+
+    /**
+     * Calculates costs of all cheapest paths with at most the given number of edges.
+     * Unlike the pivots of {@link #distances(int)}, this limits the length of a path, not the
+     * nodes it may visit. The matrix of paths with at most one edge is raised to the given
+     * power in the min-plus semiring by repeated squaring, so O(n^3 log h) operations are
+     * needed. Squaring stops early once longer paths are no longer cheaper.
+     * Costs stay defined with negative cycles, which are reported if one of at most
+     * the given number of edges exists.
+     *
+     * @param hops Maximal number of edges per path
+     * @return Costs of all cheapest paths with at most the given number of edges
+     */
+    public HopLimitedDistances distancesWithinHops(int hops) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("Hops must not be negative: " + hops);
+        }
+
+        // Every node reaches itself without an edge
+        double[] power = matrix.clone();
+        for (int a = 0; a < nodeCount; a++) {
+            power[a * nodeCount + a] = Math.min(power[a * nodeCount + a], 0);
+        }
+
+        MinPlusProduct product = new MinPlusProduct(nodeCount, tileSize, pool);
+        double[] distances = null;
+        for (int remaining = hops; remaining > 0; remaining >>>= 1) {
+            if ((remaining & 1) != 0) {
+                // Costs of no hops is the identity, the first factor is taken as is
+                distances = distances == null ? power.clone() : product.multiply(distances, power);
+            }
+            if (remaining > 1) {
+                double[] squared = product.multiply(power, power);
+                if (Arrays.equals(squared, power)) {
+                    // All higher powers are equal, apply the power once if not done yet
+                    if ((remaining & 1) == 0) {
+                        distances = distances == null ? power : product.multiply(distances, power);
                     }
+                    break;
+                }
+                power = squared;
+            }
+        }
+
+        if (distances == null) {
+            // No edges allowed
+            distances = new double[matrixSize(nodeCount)];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            for (int a = 0; a < nodeCount; a++) {
+                distances[a * nodeCount + a] = 0;
+            }
+        }
+        return new HopLimitedDistances(nodeCount, hops, distances);
+    }
+
+    /**
+     * Checks if all pairs are cheaper to calculate with Johnson's algorithm, which requires
+     * the diagonal to be free of positive costs.
+     *
+     * @return If Johnson's algorithm should be used
+     */
+    private boolean prefersJohnson() {
+        long edges = 0;
+        for (int a = 0; a < nodeCount; a++) {
+            if (matrix[a * nodeCount + a] > 0) {
+                // Johnson does not consider costs of loops for paths from a node to itself
+                return false;
+            }
+            for (int b = 0; b < nodeCount; b++) {
+                if (matrix[a * nodeCount + b] != Double.POSITIVE_INFINITY) {
+                    edges++;
+                }
+            }
+        }
+        return Johnson.isCheaper(nodeCount, edges);
+    }
+
+    /**
+     * Calculates all pairs with Johnson's algorithm on the finite entries of the matrix.
+     *
+     * @return Costs of all shortest paths
+     */
+    private DistanceMatrix johnson() {
+        Johnson johnson = new Johnson(nodeCount, pool);
+        johnson.setPathTracking(pathTracking);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                double weight = matrix[a * nodeCount + b];
+                if (a != b || weight < 0) {
+                    johnson.addEdge(a, b, weight);
                 }
             }
         }
+        return johnson.distances();
+    }
 
-        return true;
+    /**
+     * Returns nodes of the shortest path between i and j found by the last calculation.
+     * Requires path tracking to be enabled before the calculation.
+     *
+     * @param i From node
+     * @param j To node
+     * @return Nodes i, ..., j of the path, empty if j is not reachable
+     */
+    public int[] path(int i, int j) {
+        if (result == null) {
+            throw new IllegalStateException("Paths not calculated");
+        }
+        return result.path(i, j);
+    }
+
+    /**
+     * Enables maintaining successors during the calculation, so paths can be reconstructed.
+     *
+     * @param pathTracking If successors are maintained
+     */
+    public void setPathTracking(boolean pathTracking) {
+        this.pathTracking = pathTracking;
     }
 
     public int getNumberOfNodes(){
-        return matrix.length;
+        return nodeCount;
+    }
+
+    public int getTileSize() {
+        return tileSize;
     }
 
+    /**
+     * Sets costs of an edge. If all pairs have been calculated and the costs do not increase,
+     * the last result is updated in O(n^2), otherwise it is calculated again on the next query.
+     */
     public void addEdge(int nodeFrom, int nodeTo, double weight){
-        this.matrix[nodeFrom][nodeTo] = weight;
+        int index = nodeFrom * nodeCount + nodeTo;
+        if (result != null && result.getPivots() == nodeCount && weight <= matrix[index]) {
+            result = result.withEdge(nodeFrom, nodeTo, weight);
+        } else {
+            // Last result is outdated
+            result = null;
+        }
+        this.matrix[index] = weight;
         edgeCount++;
     }
 
+    /**
+     * Blocked schedule of the pivots, independent of the type of the costs.
+     * Subclasses hold the matrix and relax single tiles.
+     */
+    abstract static class BlockedSchedule {
+        final int nodeCount;
+        final int tileSize;
+        final ForkJoinPool pool;
+
+        /**
+         * @param nodeCount Number of nodes
+         * @param tileSize Edge length of the tiles
+         * @param pool Pool relaxing independent tiles in parallel, null for sequential execution
+         */
+        BlockedSchedule(int nodeCount, int tileSize, ForkJoinPool pool) {
+            this.nodeCount = nodeCount;
+            this.tileSize = tileSize;
+            this.pool = pool;
+        }
+
+        /**
+         * Relaxes the matrix using the pivots pivotFrom, ..., pivotTo-1 as additional hops.
+         * The pivots are processed in blocks within one tile: first the diagonal tile of the block,
+         * then the tiles in the block's row and column, then all remaining tiles. Every step only
+         * reads tiles already final for the block, so each tile is loaded once per block.
+         * The tiles of the second and third step are independent of each other and are relaxed
+         * in parallel if a pool is set. Negative cycles are checked after the last block,
+         * so workers never have to be stopped early.
+         *
+         * @param pivotFrom First pivot
+         * @param pivotTo Pivot after last pivot
+         * @return If matrix is valid, or if negative cycle has been found
+         */
+        boolean run(int pivotFrom, int pivotTo) {
+            int tileCount = (nodeCount + tileSize - 1) / tileSize;
+
+            for (int blockFrom = pivotFrom; blockFrom < pivotTo; ) {
+                final int block = blockFrom / tileSize;
+                final int first = blockFrom;
+                // Resumed calculations may start within a tile
+                final int last = Math.min((block + 1) * tileSize, pivotTo);
+
+                // Diagonal tile
+                relaxTile(first, last, block, block);
+
+                // Tiles in row and column of the block
+                forEachTile(2 * tileCount, index -> {
+                    int other = index / 2;
+                    if (other != block) {
+                        if (index % 2 == 0) {
+                            relaxTile(first, last, block, other);
+                        } else {
+                            relaxTile(first, last, other, block);
+                        }
+                    }
+                });
+
+                // Remaining tiles
+                forEachTile(tileCount * tileCount, index -> {
+                    int row = index / tileCount;
+                    int col = index % tileCount;
+                    if (row != block && col != block) {
+                        relaxTile(first, last, row, col);
+                    }
+                });
+
+                blockFrom = last;
+            }
+
+            return !hasNegativeDiagonal();
+        }
+
+        private void forEachTile(int count, IntConsumer action) {
+            FloydWarshall.forEachTile(pool, count, action);
+        }
+
+        private void relaxTile(int pivotFrom, int pivotTo, int row, int col) {
+            int rowFrom = row * tileSize;
+            int colFrom = col * tileSize;
+            relaxTile(pivotFrom, pivotTo, rowFrom, Math.min(rowFrom + tileSize, nodeCount),
+                    colFrom, Math.min(colFrom + tileSize, nodeCount));
+        }
+
+        /**
+         * Adjusts costs of a tile using the given pivots as hops.
+         *
+         * @param pivotFrom First pivot
+         * @param pivotTo Pivot after last pivot
+         * @param rowFrom First row of tile
+         * @param rowTo Row after last row of tile
+         * @param colFrom First column of tile
+         * @param colTo Column after last column of tile
+         */
+        abstract void relaxTile(int pivotFrom, int pivotTo, int rowFrom, int rowTo, int colFrom, int colTo);
+
+        /**
+         * @return If a node reaches itself with negative costs
+         */
+        abstract boolean hasNegativeDiagonal();
+    }
+
+    /**
+     * Blocked relaxation of a matrix, shared by new calculations and resumed results.
+     */
+    static class Relaxation extends BlockedSchedule {
+        private final double[] matrix;
+        private final Successors successors;
+
+        /**
+         * @param matrix Matrix in row-major order, relaxed in place
+         * @param successors Successors of the matrix, null if paths are not tracked
+         * @param nodeCount Number of nodes
+         * @param tileSize Edge length of the tiles
+         * @param pool Pool relaxing independent tiles in parallel, null for sequential execution
+         */
+        Relaxation(double[] matrix, Successors successors, int nodeCount, int tileSize, ForkJoinPool pool) {
+            super(nodeCount, tileSize, pool);
+            this.matrix = matrix;
+            this.successors = successors;
+        }
+
+        @Override
+        void relaxTile(int pivotFrom, int pivotTo, int rowFrom, int rowTo, int colFrom, int colTo) {
+            for (int a = pivotFrom; a < pivotTo; a++) {
+                int pivotRow = a * nodeCount + colFrom;
+                for (int b = rowFrom; b < rowTo; b++) {
+                    int row = b * nodeCount;
+                    double toPivot = matrix[row + a];
+                    if (toPivot == Double.POSITIVE_INFINITY) {
+                        // Pivot not reachable, no costs can be improved
+                        continue;
+                    }
+                    if (successors == null) {
+                        relaxRow(matrix, row + colFrom, toPivot, pivotRow, colTo - colFrom);
+                    } else {
+                        relaxRow(matrix, successors, row + colFrom, toPivot, successors.get(row + a), pivotRow,
+                                colTo - colFrom);
+                    }
+                }
+            }
+        }
+
+        @Override
+        boolean hasNegativeDiagonal() {
+            for (int b = 0; b < nodeCount; b++) {
+                if (matrix[b * nodeCount + b] < 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Blocked min-plus product of two matrices. Every tile of the product only reads a row of
+     * tiles of the left and a column of tiles of the right factor, so all tiles of the product
+     * are independent and are calculated in parallel if a pool is set.
+     */
+    static class MinPlusProduct {
+        private final int nodeCount;
+        private final int tileSize;
+        private final ForkJoinPool pool;
+
+        /**
+         * @param nodeCount Number of nodes
+         * @param tileSize Edge length of the tiles
+         * @param pool Pool calculating tiles in parallel, null for sequential execution
+         */
+        MinPlusProduct(int nodeCount, int tileSize, ForkJoinPool pool) {
+            this.nodeCount = nodeCount;
+            this.tileSize = tileSize;
+            this.pool = pool;
+        }
+
+        /**
+         * @param left Left factor in row-major order
+         * @param right Right factor in row-major order
+         * @return Product with product[a][b] = min over c of left[a][c] + right[c][b]
+         */
+        double[] multiply(double[] left, double[] right) {
+            double[] product = new double[matrixSize(nodeCount)];
+            Arrays.fill(product, Double.POSITIVE_INFINITY);
+            int tileCount = (nodeCount + tileSize - 1) / tileSize;
+            forEachTile(pool, tileCount * tileCount,
+                    index -> multiplyTile(left, right, product, index / tileCount, index % tileCount));
+            return product;
+        }
+
+        /**
+         * Calculates a tile of the product, one tile of the inner dimension at a time.
+         */
+        private void multiplyTile(double[] left, double[] right, double[] product, int tileRow, int tileCol) {
+            int rowFrom = tileRow * tileSize;
+            int rowTo = Math.min(rowFrom + tileSize, nodeCount);
+            int colFrom = tileCol * tileSize;
+            int length = Math.min(colFrom + tileSize, nodeCount) - colFrom;
+
+            for (int innerFrom = 0; innerFrom < nodeCount; innerFrom += tileSize) {
+                int innerTo = Math.min(innerFrom + tileSize, nodeCount);
+                for (int b = rowFrom; b < rowTo; b++) {
+                    int row = b * nodeCount;
+                    for (int a = innerFrom; a < innerTo; a++) {
+                        double toPivot = left[row + a];
+                        if (toPivot == Double.POSITIVE_INFINITY) {
+                            // Pivot not reachable, no costs can be improved
+                            continue;
+                        }
+                        relaxRow(product, row + colFrom, toPivot, right, a * nodeCount + colFrom, length);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs action for every tile index, in parallel if a pool is set.
+     * Returns after all tiles have been processed.
+     *
+     * @param pool Pool running tiles in parallel, null for sequential execution
+     * @param count Number of tile indices
+     * @param action Action per tile index
+     */
+    private static void forEachTile(ForkJoinPool pool, int count, IntConsumer action) {
+        if (pool == null) {
+            for (int index = 0; index < count; index++) {
+                action.accept(index);
+            }
+        } else {
+            pool.invoke(new TileTask(0, count, action));
+        }
+    }
+
+    /**
+     * Task splitting a range of tile indices until single tiles remain.
+     */
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        TileTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+            } else if (to > from) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(from, middle, action), new TileTask(middle, to, action));
+            }
+        }
+    }
+
+    /**
+     * Next hop per pair of nodes, stored with 16 bits per pair if the node ids fit.
+     */
+    abstract static class Successors {
+        /**
+         * Successor of unreachable pairs
+         */
+        static final int NONE = -1;
+
+        abstract int get(int index);
+
+        abstract void set(int index, int node);
+
+        /**
+         * @return Independent copy of the successors
+         */
+        abstract Successors copy();
+
+        /**
+         * Initial successors of a matrix: the direct hop for every finite entry.
+         *
+         * @param matrix Matrix in row-major order
+         * @param nodeCount Number of nodes
+         * @return Successors
+         */
+        static Successors of(double[] matrix, int nodeCount) {
+            Successors successors = allocate(nodeCount);
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    int index = a * nodeCount + b;
+                    successors.set(index, matrix[index] == Double.POSITIVE_INFINITY ? NONE : b);
+                }
+            }
+            return successors;
+        }
+
+        /**
+         * Successors without any reachable pair.
+         *
+         * @param nodeCount Number of nodes
+         * @return Successors
+         */
+        static Successors none(int nodeCount) {
+            Successors successors = allocate(nodeCount);
+            int size = matrixSize(nodeCount);
+            for (int index = 0; index < size; index++) {
+                successors.set(index, NONE);
+            }
+            return successors;
+        }
+
+        private static Successors allocate(int nodeCount) {
+            return nodeCount <= Short.MAX_VALUE
+                    ? new ShortSuccessors(matrixSize(nodeCount))
+                    : new IntSuccessors(matrixSize(nodeCount));
+        }
+    }
+
+    static class ShortSuccessors extends Successors {
+        private final short[] next;
+
+        ShortSuccessors(int size) {
+            this(new short[size]);
+        }
+
+        private ShortSuccessors(short[] next) {
+            this.next = next;
+        }
+
+        int get(int index) {
+            return next[index];
+        }
+
+        void set(int index, int node) {
+            next[index] = (short) node;
+        }
+
+        Successors copy() {
+            return new ShortSuccessors(next.clone());
+        }
+    }
+
+    static class IntSuccessors extends Successors {
+        private final int[] next;
+
+        IntSuccessors(int size) {
+            this(new int[size]);
+        }
+
+        private IntSuccessors(int[] next) {
+            this.next = next;
+        }
+
+        int get(int index) {
+            return next[index];
+        }
+
+        void set(int index, int node) {
+            next[index] = node;
+        }
+
+        Successors copy() {
+            return new IntSuccessors(next.clone());
+        }
+    }
 }
@@ -1,32 +1,50 @@
-import java.util.LinkedList;
+import util.ResidualGraph;
+
+import java.util.Arrays;
 
 public class FordFulkerson {
 
     /**
-     * Node Adjacency list
+     * Collects edges until the graph is frozen
+     */
+    private ResidualGraph.Builder builder;
+    /**
+     * Residual network with paired reverse arcs, so flow can be sent back along an edge
+     */
+    private ResidualGraph graph;
+    /**
+     * BFS queue reused by every search, each node is enqueued at most once per search
      */
-    public LinkedList<Edge>[] list;
+    private int[] queue;
     /**
-     * Holds last bfs path
+     * Holds last bfs path as arc index per node, -1 if node not reached
      */
-   public Edge[] edgeTo;
+   public int[] edgeTo;
 
     /**
      * Number of nodes
      */
     public int nodeCount;
 
+    /**
+     * Source and target of the current flow, -1 if no flow has been calculated
+     */
+    private int source = -1;
+    private int target = -1;
+    /**
+     * Value of the current flow
+     */
+    private double flowValue = 0;
+
    public FordFulkerson(int nodeCount){
-       this.list = new LinkedList[nodeCount];
+       this.builder = new ResidualGraph.Builder(nodeCount);
        this.nodeCount = nodeCount;
-
-       for (int i = 0; i < nodeCount; i++) {
-           this.list[i] = new LinkedList<>();
-       }
    }
 
     /**
-     * Calculates max flow in a s/t network.
+     * Calculates max flow in a s/t network. If the current flow has the same source and target,
+     * it is kept and only augmented, so re-solving after capacity changes only searches the
+     * paths the changes opened.
      *
      * @param s Source node
      * @param t Target node
@@ -34,75 +52,157 @@ public class FordFulkerson {
      */
     public double maxFlow(int s, int t){
 
-        double maxFlow = 0;
         // No flow in empty graph
         if (nodeCount == 0)  return 0;
 
-
+        start(s, t);
         while (augmentingPathExists(s, t)) {
-            // Get smallest capacity
-            int cur = t;
-            double min = Double.MAX_VALUE;
-            while (cur != s) {
-                Edge edge = edgeTo[cur];
-                min = Math.min(min, edge.remainingCapacity(cur));
-                cur = edge.getOtherEnd(cur);
-            }
+            flowValue += augment(s, t, Double.MAX_VALUE);
+        }
+        return flowValue;
+    }
 
-            // Adjust capacities along flow
-            cur = t;
-            while (cur != s) {
-                Edge edge = edgeTo[cur];
-                edge.updateFlow(cur, min);
-                cur = edge.getOtherEnd(cur);
-            }
+    /**
+     * Changes the capacity of an edge, keeping the current flow. If the flow over the edge
+     * exceeds the new capacity, the surplus is rerouted around the edge where possible and
+     * otherwise returned to source and target, so the flow stays valid. Call
+     * {@link #maxFlow(int, int)} afterwards to augment the flow again.
+     *
+     * @param edge Id of edge returned by addEdge
+     * @param capacity New capacity
+     */
+    public void changeCapacity(int edge, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        ResidualGraph graph = graph();
+        int arc = graph.arc(edge);
+        double surplus = graph.flow(arc) - capacity;
+        graph.setCapacity(arc, capacity);
+        if (surplus <= 0) {
+            // Flow still fits, an increase only opens new augmenting paths
+            return;
+        }
+
+        int u = graph.source(arc);
+        int v = graph.target(arc);
+        graph.push(arc, -surplus);
+        // u has surplus inflow and v lacks inflow, route the difference around the edge
+        surplus -= route(u, v, surplus);
+        if (surplus > 0) {
+            // Nodes reachable from u do not contain v, so they contain the source
+            route(u, source, surplus);
+            route(target, v, surplus);
+            flowValue -= surplus;
+        }
+    }
+
+    /**
+     * Pushes flow along augmenting paths until the limit is reached or no path is left.
+     *
+     * @param from Start node
+     * @param to Target node
+     * @param limit Maximal amount of flow
+     * @return Amount of flow pushed
+     */
+    private double route(int from, int to, double limit) {
+        double pushed = 0;
+        while (pushed < limit && augmentingPathExists(from, to)) {
+            pushed += augment(from, to, limit - pushed);
+        }
+        return pushed;
+    }
 
-            maxFlow += min;
+    /**
+     * Keeps the current flow if it has the given source and target, removes it otherwise.
+     */
+    private void start(int s, int t) {
+        if (s != source || t != target) {
+            restart(s, t);
         }
-        return maxFlow;
     }
 
     /**
-     * Builds BFS from s to t (saved in static variable edgeTo!)
+     * Removes the current flow, so the next augmentations start from zero flow.
+     */
+    private void restart(int s, int t) {
+        graph().clearFlow();
+        flowValue = 0;
+        source = s;
+        target = t;
+    }
+
+    /**
+     * Pushes the smallest residual capacity along the last bfs path.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @param limit Maximal amount of flow
+     * @return Amount of flow pushed
+     */
+    private double augment(int s, int t, double limit) {
+        // Get smallest capacity
+        int cur = t;
+        double min = limit;
+        while (cur != s) {
+            int arc = edgeTo[cur];
+            min = Math.min(min, graph.residual(arc));
+            cur = graph.source(arc);
+        }
+
+        // Adjust capacities along flow, reverse arcs gain the same amount
+        cur = t;
+        while (cur != s) {
+            int arc = edgeTo[cur];
+            graph.push(arc, min);
+            cur = graph.source(arc);
+        }
+        return min;
+    }
+
+    /**
+     * Builds BFS from s to t (saved in variable edgeTo!)
      *
      * @param s Start node
      * @param t Target node
      * @return If path exists
      */
     private boolean augmentingPathExists(int s, int t) {
-        LinkedList<Integer> queue = new LinkedList<>();
+        ResidualGraph graph = graph();
+        if (s == t) {
+            // Path without edges carries no flow
+            return false;
+        }
 
-        // Reset memory
-        boolean[] isMarked = new boolean[nodeCount];
-        edgeTo = new Edge[nodeCount];
+        // Reset memory, nodes are discovered if they have an arc or are s
+        Arrays.fill(edgeTo, -1);
 
         // Start bfs from s
-        isMarked[s] = true;
-        queue.addFirst(s);
+        queue[0] = s;
+        int head = 0;
+        int tail = 1;
 
         // As long as target node not reached and still neighbours in queue
-        while (edgeTo[t] == null && queue.size() > 0) {
-
-            int cur = queue.pollLast();
-            for (int i = 0; i < getNumberOfNeighbours(cur); i++) {
-                Edge edge = getNeighbour(cur, i);
+        while (edgeTo[t] == -1 && head < tail) {
 
-                int other = edge.getOtherEnd(cur);
-                if (edge.remainingCapacity(other) > 0 && !isMarked[other]) {
+            int cur = queue[head++];
+            for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+                int other = graph.target(arc);
+                if (graph.residual(arc) > 0 && edgeTo[other] == -1 && other != s) {
                     // Still capacity remaining and other not discovered
-                    edgeTo[other] = edge; // Remember "fastest" edge to this node
-                    isMarked[cur] = true; // Mark current node as discovered
-                    queue.addFirst(other);
+                    edgeTo[other] = arc; // Remember "fastest" arc to this node, also marks it as discovered
+                    queue[tail++] = other;
                 }
             }
         }
 
         // Path to t found?
-        return edgeTo[t] != null;
+        return edgeTo[t] != -1;
     }
 
     /**
      * Calculates number of updates when calculating max flow in a s/t network.
+     * Always starts from zero flow, a flow of an earlier calculation is removed.
      * Used for testing purposes only.
      *
      * @param s Source node
@@ -115,77 +215,67 @@ public class FordFulkerson {
         // No flow in empty graph
         if (nodeCount == 0)  return 0;
 
+        restart(s, t);
         while (augmentingPathExists(s, t)) {
-            // Get smallest capacity
-            int cur = t;
-            double min = Double.MAX_VALUE;
-            while (cur != s) {
-                Edge edge = edgeTo[cur];
-                min = Math.min(min, edge.remainingCapacity(cur));
-                cur = edge.getOtherEnd(cur);
-            }
-
-            // Adjust capacities along flow
-            cur = t;
-            while (cur != s) {
-                Edge edge = edgeTo[cur];
-                edge.updateFlow(cur, min);
-                cur = edge.getOtherEnd(cur);
-            }
+            flowValue += augment(s, t, Double.MAX_VALUE);
             numberOfUpdates++;
         }
         return numberOfUpdates;
     }
 
-    public void addEdge(int nodeFrom, int nodeTo, int capacity) {
-        Edge edge = new Edge(nodeFrom, nodeTo, capacity);
-        this.list[nodeFrom].add(edge);
+    /**
+     * Freezes the collected edges into the residual graph on first use.
+     * Replaces the list of edge objects per node: arcs are flat arrays and every arc
+     * knows its reverse, so the searches do not allocate.
+     *
+     * @return Residual graph
+     */
+    private ResidualGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            queue = new int[nodeCount];
+            edgeTo = new int[nodeCount];
+            // Release edge buffers
+            builder = null;
+        }
+        return graph;
     }
 
-    public int getNumberOfNeighbours(int cur) {
-        return list[cur].size();
+    /**
+     * Adds an edge.
+     *
+     * @return Id of edge, edges are numbered in insertion order
+     */
+    public int addEdge(int nodeFrom, int nodeTo, int capacity) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        return this.builder.addEdge(nodeFrom, nodeTo, capacity);
     }
 
-    public Edge getNeighbour(int cur, int neighbour) {
-        return list[cur].get(neighbour);
+    /**
+     * @param edge Id of edge returned by addEdge
+     * @return Flow over edge
+     */
+    public double flow(int edge) {
+        ResidualGraph graph = graph();
+        return graph.flow(graph.arc(edge));
     }
 
     /**
-     * Represents a max flow edge
+     * @param cur Node
+     * @return Number of arcs of node, reverse arcs of incoming edges included
      */
-    public static class Edge {
-        public int source;
-        public int target;
-        public double capacity;
-        public double flow;
-
-        public Edge(int source, int target, double capacity) {
-            this.source = source;
-            this.target = target;
-            this.capacity = capacity;
-            this.flow = 0d;
-        }
-
-        public int getOtherEnd(int node) {
-            return node == source ? target : source;
-        }
-
-        public void updateFlow(int fromNode, double value) {
-            if (fromNode == source)
-                // Input node is source node
-                flow -= value;
-            else
-                // Input node is target node
-                flow += value;
-        }
+    public int getNumberOfNeighbours(int cur) {
+        return graph().endArc(cur) - graph().firstArc(cur);
+    }
 
-        public double remainingCapacity(int node) {
-            if (node == source)
-                // Input node is source node
-                return flow;
-            else
-                // Input node is target node
-                return capacity - flow;
-        }
+    /**
+     * @param cur Node
+     * @param neighbour Index of neighbour
+     * @return Index of arc to given neighbour
+     */
+    public int getNeighbour(int cur, int neighbour) {
+        return graph().firstArc(cur) + neighbour;
     }
 }
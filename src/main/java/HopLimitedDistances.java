@@ -0,0 +1,74 @@
+/**
+ * Costs of all cheapest paths with at most a given number of edges.
+ * Instances are not modified after construction.
+ */
+public class HopLimitedDistances {
+
+    /**
+     * Number of nodes
+     */
+    private final int nodeCount;
+    /**
+     * Maximal number of edges per path
+     */
+    private final int hops;
+    /**
+     * Costs in row-major order, costs from a to b are stored at a * nodeCount + b
+     */
+    private final double[] distances;
+    /**
+     * Flag if negative cycle with at most hops edges has been found
+     */
+    private final boolean negativeCycle;
+
+    HopLimitedDistances(int nodeCount, int hops, double[] distances) {
+        this.nodeCount = nodeCount;
+        this.hops = hops;
+        this.distances = distances;
+
+        // A closed path with negative costs contains a negative cycle of at most as many edges
+        boolean negative = false;
+        for (int a = 0; a < nodeCount; a++) {
+            negative |= distances[a * nodeCount + a] < 0;
+        }
+        this.negativeCycle = negative;
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Costs of cheapest path between i and j with at most hops edges, infinity if there is none
+     */
+    public double distance(int i, int j) {
+        return distances[i * nodeCount + j];
+    }
+
+    /**
+     * Returns costs of the cheapest path formatted like FloydWarshall.
+     *
+     * @param i From node
+     * @param j To node
+     * @return Costs of cheapest path or "Neg.Cycle" if negative cycle within the hop limit detected
+     */
+    public String shortestPath(int i, int j) {
+        if (negativeCycle) {
+            return FloydWarshall.NEGATIVE_CYCLE;
+        }
+        return String.valueOf(nodeCount > 0 ? distance(i, j) : 0D);
+    }
+
+    public boolean hasNegativeCycle() {
+        return negativeCycle;
+    }
+
+    /**
+     * @return Maximal number of edges per path
+     */
+    public int getHops() {
+        return hops;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+}
@@ -0,0 +1,232 @@
+import java.util.Arrays;
+
+/**
+ * Detects cycles in a directed graph while edges are inserted one at a time.
+ * Maintains a topological order of the graph (Pearce-Kelly), so every insertion
+ * only searches the nodes between the positions of the new edge's end points.
+ * Edges closing a cycle are rejected, the graph therefore stays acyclic.
+ */
+public class IncrementalCycleDetector {
+
+    /**
+     * Outgoing adjacency per node
+     */
+    private int[][] successors;
+    private int[] successorCount;
+    /**
+     * Incoming adjacency per node
+     */
+    private int[][] predecessors;
+    private int[] predecessorCount;
+    /**
+     * Position of every node in the topological order
+     */
+    private int[] order;
+    /**
+     * Node at every position of the topological order
+     */
+    private int[] nodeAt;
+    /**
+     * Visited stamp per node, valid if equal to current epoch
+     */
+    private int[] visited;
+    private int epoch = 0;
+    /**
+     * Work buffers, reused for every insertion
+     */
+    private int[] stack;
+    private int[] forward;
+    private int forwardCount;
+    private int[] backward;
+    private int backwardCount;
+    private int[] positions;
+
+    public IncrementalCycleDetector(int nodeCount) {
+        this.successors = new int[nodeCount][];
+        this.successorCount = new int[nodeCount];
+        this.predecessors = new int[nodeCount][];
+        this.predecessorCount = new int[nodeCount];
+        this.order = new int[nodeCount];
+        this.nodeAt = new int[nodeCount];
+        this.visited = new int[nodeCount];
+        this.stack = new int[nodeCount];
+        this.forward = new int[nodeCount];
+        this.backward = new int[nodeCount];
+        this.positions = new int[nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            // Initially nodes are ordered by their id
+            order[i] = i;
+            nodeAt[i] = i;
+            successors[i] = new int[2];
+            predecessors[i] = new int[2];
+        }
+    }
+
+    /**
+     * Inserts an edge, unless it would close a cycle.
+     *
+     * @param nodeFrom From node
+     * @param nodeTo To node
+     * @param weight Weight, not used for cycle detection
+     * @return If edge would create a cycle and has therefore been rejected
+     */
+    public boolean addEdge(int nodeFrom, int nodeTo, int weight) {
+        if (nodeFrom == nodeTo) {
+            // Loop is a trivial cycle
+            return true;
+        }
+
+        int lower = order[nodeTo];
+        int upper = order[nodeFrom];
+        if (lower < upper) {
+            // Edge violates current order, only nodes between lower and upper are affected
+            nextEpoch();
+            if (!searchForward(nodeTo, upper, nodeFrom)) {
+                return true;
+            }
+            searchBackward(nodeFrom, lower);
+            reorder();
+        }
+
+        append(successors, successorCount, nodeFrom, nodeTo);
+        append(predecessors, predecessorCount, nodeTo, nodeFrom);
+        return false;
+    }
+
+    /**
+     * Collects nodes reachable from start with position below upper.
+     *
+     * @param start Start node
+     * @param upper Position of the new edge's source
+     * @param target Source node of the new edge
+     * @return False if target is reachable, i.e. the new edge closes a cycle
+     */
+    private boolean searchForward(int start, int upper, int target) {
+        forwardCount = 0;
+        int top = 0;
+        stack[top] = start;
+        visited[start] = epoch;
+
+        while (top >= 0) {
+            int cur = stack[top--];
+            forward[forwardCount++] = cur;
+            for (int i = 0; i < successorCount[cur]; i++) {
+                int neighbour = successors[cur][i];
+                if (neighbour == target) {
+                    // Cycle found
+                    return false;
+                }
+                if (visited[neighbour] != epoch && order[neighbour] < upper) {
+                    visited[neighbour] = epoch;
+                    stack[++top] = neighbour;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Collects nodes reaching start with position above lower.
+     *
+     * @param start Start node
+     * @param lower Position of the new edge's target
+     */
+    private void searchBackward(int start, int lower) {
+        backwardCount = 0;
+        int top = 0;
+        stack[top] = start;
+        visited[start] = epoch;
+
+        while (top >= 0) {
+            int cur = stack[top--];
+            backward[backwardCount++] = cur;
+            for (int i = 0; i < predecessorCount[cur]; i++) {
+                int neighbour = predecessors[cur][i];
+                if (visited[neighbour] != epoch && order[neighbour] > lower) {
+                    visited[neighbour] = epoch;
+                    stack[++top] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves all nodes of the backward search in front of the nodes of the forward search,
+     * reusing the positions the affected nodes held before.
+     */
+    private void reorder() {
+        sortByOrder(backward, backwardCount);
+        sortByOrder(forward, forwardCount);
+
+        // Collect positions of affected nodes
+        int count = 0;
+        for (int i = 0; i < backwardCount; i++) {
+            positions[count++] = order[backward[i]];
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            positions[count++] = order[forward[i]];
+        }
+        Arrays.sort(positions, 0, count);
+
+        // Reassign positions, keeping the relative order within both sets
+        int next = 0;
+        for (int i = 0; i < backwardCount; i++) {
+            place(backward[i], positions[next++]);
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            place(forward[i], positions[next++]);
+        }
+    }
+
+    private void sortByOrder(int[] nodes, int count) {
+        for (int i = 0; i < count; i++) {
+            nodes[i] = order[nodes[i]];
+        }
+        Arrays.sort(nodes, 0, count);
+        for (int i = 0; i < count; i++) {
+            nodes[i] = nodeAt[nodes[i]];
+        }
+    }
+
+    private void place(int node, int position) {
+        order[node] = position;
+        nodeAt[position] = node;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // Stamps would overflow, start again
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+    }
+
+    private static void append(int[][] adjacency, int[] count, int node, int neighbour) {
+        if (count[node] == adjacency[node].length) {
+            adjacency[node] = Arrays.copyOf(adjacency[node], count[node] * 2);
+        }
+        adjacency[node][count[node]++] = neighbour;
+    }
+
+    /**
+     * @return Nodes in topological order of the current graph
+     */
+    public int[] topologicalOrder() {
+        return nodeAt.clone();
+    }
+
+    public int getNumberOfNodes() {
+        return order.length;
+    }
+
+    public int getNumberOfNeighbours(int cur) {
+        return successorCount[cur];
+    }
+
+    public int getNeighbour(int cur, int neighbour) {
+        return successors[cur][neighbour];
+    }
+}
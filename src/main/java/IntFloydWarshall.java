@@ -0,0 +1,130 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Calcualtes shortest paths in a directed graph with integer costs, using 4 bytes per pair.
+ * Missing edges have costs INFINITY. Finite sums beyond the range of int are clamped to
+ * INFINITY - 1, so reachable pairs never become unreachable.
+ */
+public class IntFloydWarshall extends TypedFloydWarshall {
+
+    /**
+     * Costs of missing edges and unreachable pairs
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * Adjacency matrix in row-major order, costs from a to b are stored at a * nodeCount + b
+     */
+    public int[] matrix;
+
+    /**
+     * Working copy relaxed in place, null until first relaxation
+     */
+    private int[] distances;
+
+    public IntFloydWarshall(int nodeCount) {
+        this(nodeCount, FloydWarshall.DEFAULT_TILE_SIZE);
+    }
+
+    public IntFloydWarshall(int nodeCount, int tileSize) {
+        this(nodeCount, tileSize, null);
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param tileSize Edge length of the tiles
+     * @param pool Pool relaxing independent tiles in parallel, null for sequential execution
+     */
+    public IntFloydWarshall(int nodeCount, int tileSize, ForkJoinPool pool) {
+        super(nodeCount, tileSize, pool);
+        this.matrix = new int[nodeCount * nodeCount];
+
+        // No edges, every node reaches itself
+        Arrays.fill(matrix, INFINITY);
+        for (int a = 0; a < nodeCount; a++) {
+            matrix[a * nodeCount + a] = 0;
+        }
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Costs found by the last relaxation, INFINITY if j is not reachable
+     */
+    public int distance(int i, int j) {
+        return (distances == null ? matrix : distances)[i * nodeCount + j];
+    }
+
+    @Override
+    public double costs(int i, int j) {
+        int costs = distance(i, j);
+        return costs == INFINITY ? Double.POSITIVE_INFINITY : costs;
+    }
+
+    public void addEdge(int nodeFrom, int nodeTo, int weight) {
+        this.matrix[nodeFrom * nodeCount + nodeTo] = weight;
+        edgeChanged();
+    }
+
+    @Override
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (weight == Double.POSITIVE_INFINITY) {
+            addEdge(nodeFrom, nodeTo, INFINITY);
+        } else if (weight == Math.rint(weight) && weight < INFINITY && weight >= Integer.MIN_VALUE) {
+            addEdge(nodeFrom, nodeTo, (int) weight);
+        } else {
+            throw new IllegalArgumentException("Costs can not be represented as int: " + weight);
+        }
+    }
+
+    @Override
+    void restart() {
+        if (distances == null) {
+            distances = new int[matrix.length];
+        }
+        System.arraycopy(matrix, 0, distances, 0, matrix.length);
+    }
+
+    @Override
+    void relaxTile(int pivotFrom, int pivotTo, int rowFrom, int rowTo, int colFrom, int colTo) {
+        for (int a = pivotFrom; a < pivotTo; a++) {
+            int pivotRow = a * nodeCount + colFrom;
+            for (int b = rowFrom; b < rowTo; b++) {
+                int row = b * nodeCount;
+                int toPivot = distances[row + a];
+                if (toPivot == INFINITY) {
+                    // Pivot not reachable, no costs can be improved
+                    continue;
+                }
+                relaxRow(distances, row + colFrom, toPivot, pivotRow, colTo - colFrom);
+            }
+        }
+    }
+
+    @Override
+    boolean isNegative(int node) {
+        return distances[node * nodeCount + node] < 0;
+    }
+
+    /**
+     * Min-plus update of a row segment with clamped sums: INFINITY stays INFINITY,
+     * finite sums beyond the range of int are clamped to INFINITY - 1 or Integer.MIN_VALUE.
+     *
+     * @param matrix Matrix containing both segments
+     * @param row Offset of the updated segment
+     * @param toPivot Costs from row node to pivot, not INFINITY
+     * @param pivotRow Offset of the pivot's segment
+     * @param length Length of both segments
+     */
+    static void relaxRow(int[] matrix, int row, int toPivot, int pivotRow, int length) {
+        for (int c = 0; c < length; c++) {
+            int value = matrix[pivotRow + c];
+            long sum = (long) toPivot + value;
+            int costs = value == INFINITY ? INFINITY : sum >= INFINITY ? INFINITY - 1
+                    : sum <= Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) sum;
+            int current = matrix[row + c];
+            matrix[row + c] = costs < current ? costs : current;
+        }
+    }
+}
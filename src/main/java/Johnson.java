@@ -0,0 +1,292 @@
+import util.CompressedGraph;
+import util.IndexedDaryHeap;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates shortest paths between all nodes of a sparse, directed, weighted graph.
+ * Bellman-Ford from a virtual source reweights the edges to non negative costs,
+ * then a Dijkstra search is started from every node. The searches are independent
+ * and run in parallel on a fork-join pool.
+ */
+public class Johnson {
+
+    /**
+     * Number of sources searched by one task
+     */
+    private static final int SOURCES_PER_TASK = 16;
+    /**
+     * Estimated operations per edge of a Dijkstra search relative to one Floyd-Warshall update
+     */
+    private static final int HEAP_FACTOR = 4;
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private CompressedGraph.Builder builder;
+    /**
+     * Adjacency in compressed sparse row format, edge weights are the costs
+     */
+    private CompressedGraph graph;
+    /**
+     * Pool running the searches, null for sequential execution
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+    /**
+     * Flag if successors are maintained for path reconstruction
+     */
+    private boolean pathTracking = false;
+    /**
+     * Result of the calculation, null until calculated
+     */
+    private DistanceMatrix result;
+
+    /**
+     * Potential per node, costs of edge a -> b are reweighted to costs + potential[a] - potential[b]
+     */
+    private double[] potential;
+    /**
+     * Reweighted costs per edge, never negative
+     */
+    private double[] reduced;
+
+    public Johnson(int nodeCount) {
+        this(nodeCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param pool Pool running the searches, null for sequential execution
+     */
+    public Johnson(int nodeCount, ForkJoinPool pool) {
+        this.builder = new CompressedGraph.Builder(nodeCount, true);
+        this.nodeCount = nodeCount;
+        this.pool = pool;
+    }
+
+    /**
+     * Estimates if Johnson's algorithm is cheaper than Floyd-Warshall for a graph.
+     * Floyd-Warshall needs n^3 updates, Johnson n Dijkstra searches of (m + n) log n heap
+     * operations each, which pays off for sparse graphs.
+     *
+     * @param nodeCount Number of nodes
+     * @param edgeCount Number of edges with finite costs
+     * @return If Johnson's algorithm should be used
+     */
+    public static boolean isCheaper(int nodeCount, long edgeCount) {
+        if (nodeCount < 2) {
+            return false;
+        }
+        double log = Math.log(nodeCount) / Math.log(2);
+        return HEAP_FACTOR * (edgeCount + nodeCount) * log < (double) nodeCount * nodeCount;
+    }
+
+    /**
+     * Returns costs of shortest path between i and j.
+     *
+     * @param i From node
+     * @param j To node
+     * @return Costs of shortest path or "Neg.Cycle" if negative cycle detected
+     */
+    public String shortestPath(int i, int j) {
+        DistanceMatrix distances = distances();
+
+        if (distances.hasNegativeCycle()) {
+            return FloydWarshall.NEGATIVE_CYCLE;
+        }
+        return String.valueOf(distances.distance(i, j));
+    }
+
+    /**
+     * Calculates costs of all shortest paths once, later calls return the same result.
+     * Costs are undefined if the graph has a negative cycle.
+     *
+     * @return Costs of all shortest paths
+     */
+    public DistanceMatrix distances() {
+        if (result == null) {
+            graph();
+            double[] distances = new double[FloydWarshall.matrixSize(nodeCount)];
+
+            if (!reweight()) {
+                Arrays.fill(distances, Double.NaN);
+                result = new DistanceMatrix(nodeCount, distances, null, nodeCount, true,
+                        FloydWarshall.DEFAULT_TILE_SIZE, pool);
+                return result;
+            }
+
+            FloydWarshall.Successors successors = pathTracking ? FloydWarshall.Successors.none(nodeCount) : null;
+            SearchTask task = new SearchTask(distances, successors, 0, nodeCount);
+            if (pool == null) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+
+            result = new DistanceMatrix(nodeCount, distances, successors, nodeCount, false,
+                    FloydWarshall.DEFAULT_TILE_SIZE, pool);
+            // Release work buffers
+            potential = null;
+            reduced = null;
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the potentials with Bellman-Ford from a virtual source connected
+     * to every node with costs 0, and reweights all edges.
+     *
+     * @return False if negative cycle has been found
+     */
+    private boolean reweight() {
+        potential = new double[nodeCount];
+        boolean changed = nodeCount > 0;
+
+        // After n rounds without convergence a negative cycle exists
+        for (int round = 0; round < nodeCount && changed; round++) {
+            changed = false;
+            for (int node = 0; node < nodeCount; node++) {
+                double costs = potential[node];
+                for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                    int neighbour = graph.target(edge);
+                    if (costs + graph.weight(edge) < potential[neighbour]) {
+                        potential[neighbour] = costs + graph.weight(edge);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        if (changed) {
+            return false;
+        }
+
+        reduced = new double[graph.getNumberOfEdges()];
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                reduced[edge] = graph.weight(edge) + potential[node] - potential[graph.target(edge)];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Task running the Dijkstra searches of a range of sources. Ranges are split
+     * until they are small enough, every leaf allocates its own search buffers once.
+     */
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] distances;
+        private final FloydWarshall.Successors successors;
+        private final int from;
+        private final int to;
+
+        SearchTask(double[] distances, FloydWarshall.Successors successors, int from, int to) {
+            this.distances = distances;
+            this.successors = successors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (pool != null && to - from > SOURCES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SearchTask(distances, successors, from, middle),
+                        new SearchTask(distances, successors, middle, to));
+                return;
+            }
+
+            IndexedDaryHeap heap = new IndexedDaryHeap(nodeCount);
+            int[] settled = new int[nodeCount];
+            int[] firstHop = new int[nodeCount];
+            for (int source = from; source < to; source++) {
+                search(source, heap, settled, firstHop);
+            }
+        }
+
+        /**
+         * Dijkstra search on the reweighted edges, writing the row of source.
+         *
+         * @param source Start node
+         * @param heap Heap, empty
+         * @param settled Settled stamp per node, node is settled if equal to source + 1
+         * @param firstHop First node after source on the path to every reached node
+         */
+        private void search(int source, IndexedDaryHeap heap, int[] settled, int[] firstHop) {
+            int row = source * nodeCount;
+            int stamp = source + 1;
+            Arrays.fill(distances, row, row + nodeCount, Double.POSITIVE_INFINITY);
+
+            heap.push(source, 0);
+            firstHop[source] = source;
+            while (!heap.isEmpty()) {
+                int cur = heap.poll();
+                double costs = heap.key(cur);
+                settled[cur] = stamp;
+                // Undo reweighting
+                distances[row + cur] = costs - potential[source] + potential[cur];
+                if (successors != null) {
+                    successors.set(row + cur, firstHop[cur]);
+                }
+
+                for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                    int neighbour = graph.target(edge);
+                    if (settled[neighbour] != stamp && heap.push(neighbour, costs + reduced[edge])) {
+                        firstHop[neighbour] = cur == source ? neighbour : firstHop[cur];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Enables maintaining successors during the calculation, so paths can be reconstructed.
+     *
+     * @param pathTracking If successors are maintained
+     */
+    public void setPathTracking(boolean pathTracking) {
+        this.pathTracking = pathTracking;
+    }
+
+    /**
+     * Freezes the collected edges into the compressed adjacency on first use.
+     *
+     * @return Compressed adjacency
+     */
+    private CompressedGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            // Release edge buffers
+            builder = null;
+        }
+        return graph;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    public int getNumberOfEdges() {
+        return builder != null ? builder.getNumberOfEdges() : graph.getNumberOfEdges();
+    }
+
+    /**
+     * Adds an edge. Edges with infinite costs do not exist and are skipped,
+     * of parallel edges the cheapest is used.
+     */
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        if (weight != Double.POSITIVE_INFINITY) {
+            this.builder.addEdge(nodeFrom, nodeTo, weight);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+import util.CompressedGraph;
+import util.IndexedDaryHeap;
+
+import java.util.Arrays;
+
+/**
+ * Estimates costs of shortest paths in a directed graph with non negative costs.
+ * Exact costs from and to a few landmarks are calculated in advance. By the triangle
+ * inequality, d(i, L) + d(L, j) is an upper bound of d(i, j), while d(L, j) - d(L, i)
+ * and d(i, L) - d(j, L) are lower bounds. The lower bounds also guide an A* search
+ * (ALT), which calculates exact costs while settling far fewer nodes than Dijkstra.
+ */
+public class LandmarkOracle {
+
+    /**
+     * Default number of landmarks
+     */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    /**
+     * Strategy choosing the landmarks
+     */
+    public enum Selection {
+        /**
+         * Nodes with the most incoming and outgoing edges
+         */
+        DEGREE,
+        /**
+         * Each landmark is the node farthest from all landmarks chosen before,
+         * unreachable nodes first
+         */
+        FARTHEST
+    }
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private CompressedGraph.Builder builder;
+    /**
+     * Adjacency and reversed adjacency in compressed sparse row format, edge weights are the costs
+     */
+    private CompressedGraph graph;
+    private CompressedGraph transposed;
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+    private final int landmarkCount;
+    private final Selection selection;
+
+    /**
+     * Chosen landmarks
+     */
+    private int[] landmarks;
+    /**
+     * Costs from landmark l to node v at l * nodeCount + v
+     */
+    private double[] fromLandmark;
+    /**
+     * Costs from node v to landmark l at l * nodeCount + v
+     */
+    private double[] toLandmark;
+
+    /**
+     * Search buffers, costs are valid if reached stamp equals epoch
+     */
+    private IndexedDaryHeap heap;
+    private double[] costs;
+    private int[] reached;
+    private int epoch = 0;
+    /**
+     * Number of nodes settled by the last search
+     */
+    private int settledCount;
+
+    public LandmarkOracle(int nodeCount) {
+        this(nodeCount, DEFAULT_LANDMARKS, Selection.FARTHEST);
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param landmarkCount Number of landmarks, at most the number of nodes are used
+     * @param selection Strategy choosing the landmarks
+     */
+    public LandmarkOracle(int nodeCount, int landmarkCount, Selection selection) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("At least one landmark required: " + landmarkCount);
+        }
+        this.builder = new CompressedGraph.Builder(nodeCount, true);
+        this.nodeCount = nodeCount;
+        this.landmarkCount = Math.min(landmarkCount, nodeCount);
+        this.selection = selection;
+    }
+
+    /**
+     * Returns the costs of a path from i to j through the best landmark.
+     *
+     * @param i From node
+     * @param j To node
+     * @return Upper bound of costs of shortest path, infinity if no landmark connects i and j
+     */
+    public double estimate(int i, int j) {
+        prepare();
+        if (i == j) {
+            return 0;
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        for (int l = 0; l < landmarks.length; l++) {
+            best = Math.min(best, toLandmark[l * nodeCount + i] + fromLandmark[l * nodeCount + j]);
+        }
+        return best;
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Lower bound of costs of shortest path, infinity if j is not reachable from i
+     */
+    public double lowerBound(int i, int j) {
+        prepare();
+        return bound(i, j);
+    }
+
+    /**
+     * Calculates exact costs with an A* search, using the landmark lower bounds to the
+     * target as heuristic. The bounds are consistent, so every node is settled once.
+     *
+     * @param source From node
+     * @param target To node
+     * @return Costs of shortest path, infinity if target is not reachable
+     */
+    public double distance(int source, int target) {
+        prepare();
+        nextEpoch();
+        heap.clear();
+        settledCount = 0;
+
+        double estimate = bound(source, target);
+        if (estimate == Double.POSITIVE_INFINITY) {
+            return estimate;
+        }
+        costs[source] = 0;
+        reached[source] = epoch;
+        heap.push(source, estimate);
+
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            settledCount++;
+            if (cur == target) {
+                return costs[cur];
+            }
+
+            double current = costs[cur];
+            for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                int neighbour = graph.target(edge);
+                double updated = current + graph.weight(edge);
+                if (reached[neighbour] != epoch) {
+                    double remaining = bound(neighbour, target);
+                    reached[neighbour] = epoch;
+                    costs[neighbour] = updated;
+                    if (remaining != Double.POSITIVE_INFINITY) {
+                        heap.push(neighbour, updated + remaining);
+                    }
+                } else if (heap.contains(neighbour) && updated < costs[neighbour]) {
+                    // Heuristic of neighbour is the difference of old key and costs
+                    heap.push(neighbour, heap.key(neighbour) - costs[neighbour] + updated);
+                    costs[neighbour] = updated;
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Largest lower bound of all landmarks. Bounds involving unreachable landmarks either
+     * prove that j is unreachable from i or give no information.
+     */
+    private double bound(int i, int j) {
+        if (i == j) {
+            return 0;
+        }
+
+        double best = 0;
+        for (int l = 0; l < landmarks.length; l++) {
+            int offset = l * nodeCount;
+            double fromI = fromLandmark[offset + i];
+            double fromJ = fromLandmark[offset + j];
+            if (fromI != Double.POSITIVE_INFINITY) {
+                // Landmark reaches i, so it would reach j through i
+                best = Math.max(best, fromJ - fromI);
+            }
+            double toI = toLandmark[offset + i];
+            double toJ = toLandmark[offset + j];
+            if (toJ != Double.POSITIVE_INFINITY) {
+                // j reaches landmark, so i would reach it through j
+                best = Math.max(best, toI - toJ);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Freezes the graph, chooses the landmarks and calculates their costs on first use.
+     */
+    private void prepare() {
+        if (graph != null) {
+            return;
+        }
+        graph = builder.build();
+        transposed = graph.transpose();
+        // Release edge buffers
+        builder = null;
+
+        heap = new IndexedDaryHeap(nodeCount);
+        costs = new double[nodeCount];
+        reached = new int[nodeCount];
+        landmarks = new int[landmarkCount];
+        fromLandmark = new double[landmarkCount * nodeCount];
+        toLandmark = new double[landmarkCount * nodeCount];
+
+        if (selection == Selection.DEGREE) {
+            chooseByDegree();
+            for (int l = 0; l < landmarkCount; l++) {
+                search(graph, landmarks[l], fromLandmark, l * nodeCount);
+                search(transposed, landmarks[l], toLandmark, l * nodeCount);
+            }
+        } else {
+            chooseFarthest();
+        }
+    }
+
+    private void chooseByDegree() {
+        Integer[] nodes = new Integer[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodes[node] = node;
+        }
+        Arrays.sort(nodes, (a, b) -> Integer.compare(degree(b), degree(a)));
+        for (int l = 0; l < landmarkCount; l++) {
+            landmarks[l] = nodes[l];
+        }
+    }
+
+    private int degree(int node) {
+        return graph.getNumberOfNeighbours(node) + transposed.getNumberOfNeighbours(node);
+    }
+
+    /**
+     * Starts with the node of highest degree, then repeatedly picks the node with the
+     * largest costs from its closest landmark.
+     */
+    private void chooseFarthest() {
+        double[] closest = new double[nodeCount];
+        Arrays.fill(closest, Double.POSITIVE_INFINITY);
+
+        int next = 0;
+        for (int node = 1; node < nodeCount; node++) {
+            if (degree(node) > degree(next)) {
+                next = node;
+            }
+        }
+
+        for (int l = 0; l < landmarkCount; l++) {
+            landmarks[l] = next;
+            int offset = l * nodeCount;
+            search(graph, next, fromLandmark, offset);
+            search(transposed, next, toLandmark, offset);
+
+            next = -1;
+            for (int node = 0; node < nodeCount; node++) {
+                closest[node] = Math.min(closest[node], fromLandmark[offset + node]);
+                if (!isLandmark(node, l) && (next == -1 || closest[node] > closest[next])) {
+                    next = node;
+                }
+            }
+        }
+    }
+
+    private boolean isLandmark(int node, int last) {
+        for (int l = 0; l <= last; l++) {
+            if (landmarks[l] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dijkstra search writing the costs to all nodes, infinity if not reachable.
+     */
+    private void search(CompressedGraph graph, int source, double[] result, int offset) {
+        Arrays.fill(result, offset, offset + nodeCount, Double.POSITIVE_INFINITY);
+        heap.clear();
+        heap.push(source, 0);
+
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            double current = heap.key(cur);
+            result[offset + cur] = current;
+            for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                int neighbour = graph.target(edge);
+                if (result[offset + neighbour] == Double.POSITIVE_INFINITY) {
+                    heap.push(neighbour, current + graph.weight(edge));
+                }
+            }
+        }
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // Stamps would overflow, start again
+            Arrays.fill(reached, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * @return Chosen landmarks
+     */
+    public int[] getLandmarks() {
+        prepare();
+        return landmarks.clone();
+    }
+
+    /**
+     * @return Number of nodes settled by the last exact query
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge. Edges with infinite costs do not exist and are skipped.
+     */
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative costs are not supported: " + weight);
+        }
+        if (weight != Double.POSITIVE_INFINITY) {
+            this.builder.addEdge(nodeFrom, nodeTo, weight);
+        }
+    }
+}
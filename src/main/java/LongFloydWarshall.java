@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Calcualtes shortest paths in a directed graph with integer costs, using 8 bytes per pair.
+ * Missing edges have costs INFINITY. Finite sums beyond the range of long are clamped to
+ * INFINITY - 1, so reachable pairs never become unreachable.
+ */
+public class LongFloydWarshall extends TypedFloydWarshall {
+
+    /**
+     * Costs of missing edges and unreachable pairs
+     */
+    public static final long INFINITY = Long.MAX_VALUE;
+
+    /**
+     * Adjacency matrix in row-major order, costs from a to b are stored at a * nodeCount + b
+     */
+    public long[] matrix;
+
+    /**
+     * Working copy relaxed in place, null until first relaxation
+     */
+    private long[] distances;
+
+    public LongFloydWarshall(int nodeCount) {
+        this(nodeCount, FloydWarshall.DEFAULT_TILE_SIZE);
+    }
+
+    public LongFloydWarshall(int nodeCount, int tileSize) {
+        this(nodeCount, tileSize, null);
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param tileSize Edge length of the tiles
+     * @param pool Pool relaxing independent tiles in parallel, null for sequential execution
+     */
+    public LongFloydWarshall(int nodeCount, int tileSize, ForkJoinPool pool) {
+        super(nodeCount, tileSize, pool);
+        this.matrix = new long[nodeCount * nodeCount];
+
+        // No edges, every node reaches itself
+        Arrays.fill(matrix, INFINITY);
+        for (int a = 0; a < nodeCount; a++) {
+            matrix[a * nodeCount + a] = 0;
+        }
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Costs found by the last relaxation, INFINITY if j is not reachable
+     */
+    public long distance(int i, int j) {
+        return (distances == null ? matrix : distances)[i * nodeCount + j];
+    }
+
+    @Override
+    public double costs(int i, int j) {
+        long costs = distance(i, j);
+        return costs == INFINITY ? Double.POSITIVE_INFINITY : costs;
+    }
+
+    public void addEdge(int nodeFrom, int nodeTo, long weight) {
+        this.matrix[nodeFrom * nodeCount + nodeTo] = weight;
+        edgeChanged();
+    }
+
+    @Override
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (weight == Double.POSITIVE_INFINITY) {
+            addEdge(nodeFrom, nodeTo, INFINITY);
+        } else if (weight == Math.rint(weight) && weight < INFINITY && weight >= Long.MIN_VALUE) {
+            addEdge(nodeFrom, nodeTo, (long) weight);
+        } else {
+            throw new IllegalArgumentException("Costs can not be represented as long: " + weight);
+        }
+    }
+
+    @Override
+    void restart() {
+        if (distances == null) {
+            distances = new long[matrix.length];
+        }
+        System.arraycopy(matrix, 0, distances, 0, matrix.length);
+    }
+
+    @Override
+    void relaxTile(int pivotFrom, int pivotTo, int rowFrom, int rowTo, int colFrom, int colTo) {
+        for (int a = pivotFrom; a < pivotTo; a++) {
+            int pivotRow = a * nodeCount + colFrom;
+            for (int b = rowFrom; b < rowTo; b++) {
+                int row = b * nodeCount;
+                long toPivot = distances[row + a];
+                if (toPivot == INFINITY) {
+                    // Pivot not reachable, no costs can be improved
+                    continue;
+                }
+                relaxRow(distances, row + colFrom, toPivot, pivotRow, colTo - colFrom);
+            }
+        }
+    }
+
+    @Override
+    boolean isNegative(int node) {
+        return distances[node * nodeCount + node] < 0;
+    }
+
+    /**
+     * Min-plus update of a row segment with clamped sums: INFINITY stays INFINITY,
+     * finite sums beyond the range of long are clamped to INFINITY - 1 or Long.MIN_VALUE.
+     *
+     * @param matrix Matrix containing both segments
+     * @param row Offset of the updated segment
+     * @param toPivot Costs from row node to pivot, not INFINITY
+     * @param pivotRow Offset of the pivot's segment
+     * @param length Length of both segments
+     */
+    static void relaxRow(long[] matrix, int row, long toPivot, int pivotRow, int length) {
+        for (int c = 0; c < length; c++) {
+            long value = matrix[pivotRow + c];
+            long sum = toPivot + value;
+            if (((toPivot ^ sum) & (value ^ sum)) < 0) {
+                // Overflow, both summands have the same sign
+                sum = toPivot < 0 ? Long.MIN_VALUE : INFINITY;
+            }
+            long costs = value == INFINITY ? INFINITY : sum == INFINITY ? INFINITY - 1 : sum;
+            long current = matrix[row + c];
+            matrix[row + c] = costs < current ? costs : current;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import util.IndexedDaryHeap;
+import util.ResidualGraph;
+
+import java.util.Arrays;
+
+/**
+ * Calculates a max flow of minimal costs in a s/t network with successive shortest paths.
+ * Each round augments along a cheapest residual path from s to t, found by Dijkstra on
+ * costs reduced by node potentials (Johnson). Bellman-Ford provides the first potentials,
+ * so negative costs are allowed as long as no cycle of edges with capacity has negative costs.
+ * After each search the potentials absorb the search costs, which keeps all reduced costs
+ * of residual arcs non negative.
+ */
+public class MinCostMaxFlow {
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private ResidualGraph.Builder builder;
+    /**
+     * Costs per edge in insertion order, until the graph is frozen
+     */
+    private double[] edgeCosts = new double[16];
+    /**
+     * Residual network with paired reverse arcs
+     */
+    private ResidualGraph graph;
+    /**
+     * Costs per arc, reverse arcs have the negated costs of their edge
+     */
+    private double[] costs;
+
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+
+    /**
+     * Potential per node, arc a -> b has reduced costs costs + potential[a] - potential[b]
+     */
+    private double[] potential;
+    /**
+     * Reduced costs of the cheapest path from s per node in the current search
+     */
+    private double[] distance;
+    /**
+     * Arc used to reach each node in the current search, -1 if not reached
+     */
+    private int[] arcTo;
+    private IndexedDaryHeap heap;
+
+    /**
+     * Results of the last calculation
+     */
+    private double totalFlow = 0;
+    private double totalCost = 0;
+
+    public MinCostMaxFlow(int nodeCount) {
+        this.builder = new ResidualGraph.Builder(nodeCount);
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Calculates a max flow of minimal costs in a s/t network, starting without flow.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return Maximal possible flow, its costs are returned by {@link #getTotalCost()}
+     */
+    public double maxFlow(int s, int t) {
+        ResidualGraph graph = graph();
+        graph.clearFlow();
+        totalFlow = 0;
+        totalCost = 0;
+        // No flow in empty graph or from a node to itself
+        if (nodeCount == 0 || s == t) return 0;
+
+        initPotentials();
+        while (cheapestPath(s, t)) {
+            // Get smallest capacity
+            double min = Double.MAX_VALUE;
+            for (int cur = t; cur != s; cur = graph.source(arcTo[cur])) {
+                min = Math.min(min, graph.residual(arcTo[cur]));
+            }
+
+            // Adjust capacities along path
+            for (int cur = t; cur != s; cur = graph.source(arcTo[cur])) {
+                graph.push(arcTo[cur], min);
+                totalCost += min * costs[arcTo[cur]];
+            }
+            totalFlow += min;
+        }
+        return totalFlow;
+    }
+
+    /**
+     * Calculates potentials with Bellman-Ford from a virtual source connected to every node
+     * with costs 0, over all arcs with residual capacity.
+     */
+    private void initPotentials() {
+        Arrays.fill(potential, 0);
+        boolean changed = true;
+
+        // After n rounds without convergence a negative cycle exists
+        for (int round = 0; round < nodeCount && changed; round++) {
+            changed = false;
+            for (int node = 0; node < nodeCount; node++) {
+                for (int arc = graph.firstArc(node); arc < graph.endArc(node); arc++) {
+                    int neighbour = graph.target(arc);
+                    double updated = potential[node] + costs[arc];
+                    if (graph.residual(arc) > 0 && updated < potential[neighbour]) {
+                        potential[neighbour] = updated;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        if (changed) {
+            throw new IllegalStateException(FloydWarshall.NEGATIVE_CYCLE);
+        }
+    }
+
+    /**
+     * Dijkstra search with reduced costs from s, stopping when t is settled. Potentials of
+     * nodes not settled are raised by the costs of t only, which keeps the reduced costs
+     * of all residual arcs non negative.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return If t is reachable
+     */
+    private boolean cheapestPath(int s, int t) {
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(arcTo, -1);
+        heap.clear();
+        distance[s] = 0;
+        heap.push(s, 0);
+
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            if (cur == t) {
+                break;
+            }
+            for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+                int neighbour = graph.target(arc);
+                if (graph.residual(arc) <= 0) {
+                    continue;
+                }
+                double updated = distance[cur] + costs[arc] + potential[cur] - potential[neighbour];
+                if (updated < distance[neighbour]) {
+                    distance[neighbour] = updated;
+                    arcTo[neighbour] = arc;
+                    heap.push(neighbour, updated);
+                }
+            }
+        }
+        if (distance[t] == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+
+        for (int node = 0; node < nodeCount; node++) {
+            potential[node] += Math.min(distance[node], distance[t]);
+        }
+        return true;
+    }
+
+    /**
+     * Freezes the collected edges into the residual graph on first use.
+     *
+     * @return Residual graph
+     */
+    private ResidualGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            costs = new double[graph.getNumberOfArcs()];
+            for (int edge = 0; edge < graph.getNumberOfEdges(); edge++) {
+                int arc = graph.arc(edge);
+                costs[arc] = edgeCosts[edge];
+                costs[graph.reverse(arc)] = -edgeCosts[edge];
+            }
+            potential = new double[nodeCount];
+            distance = new double[nodeCount];
+            arcTo = new int[nodeCount];
+            heap = new IndexedDaryHeap(nodeCount);
+            // Release edge buffers
+            builder = null;
+            edgeCosts = null;
+        }
+        return graph;
+    }
+
+    /**
+     * @return Value of the flow of the last calculation
+     */
+    public double getTotalFlow() {
+        return totalFlow;
+    }
+
+    /**
+     * @return Costs of the flow of the last calculation
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * @param edge Edge in insertion order
+     * @return Flow over edge after the last calculation
+     */
+    public double flow(int edge) {
+        ResidualGraph graph = graph();
+        return graph.flow(graph.arc(edge));
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge.
+     *
+     * @param capacity Maximal flow over edge
+     * @param cost Costs per unit of flow
+     * @return Id of edge, edges are numbered in insertion order
+     */
+    public int addEdge(int nodeFrom, int nodeTo, int capacity, double cost) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        int edge = this.builder.addEdge(nodeFrom, nodeTo, capacity);
+        if (edge == edgeCosts.length) {
+            // Grow array
+            edgeCosts = Arrays.copyOf(edgeCosts, edgeCosts.length * 2);
+        }
+        edgeCosts[edge] = cost;
+        return edge;
+    }
+}
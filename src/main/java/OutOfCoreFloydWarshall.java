@@ -0,0 +1,473 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Calculates shortest paths in a directed, weighted graph whose matrix does not fit into memory.
+ * The matrix is stored in a file as square tiles of doubles, only a few tiles are held in memory.
+ * Pivots are processed with the blocked schedule of FloydWarshall. If the tiles of one tile row
+ * and three further tiles are cached, every tile is read and written once per block of pivots.
+ * The file keeps the number of pivots used, it can be reopened later to query or resume the calculation.
+ */
+public class OutOfCoreFloydWarshall implements Closeable {
+
+    /**
+     * Default number of tiles held in memory
+     */
+    public static final int DEFAULT_CACHED_TILES = 16;
+    /**
+     * Marks files written by this class
+     */
+    private static final int MAGIC = 0x46575431;
+    /**
+     * Bytes reserved for the header: magic, nodes, tile size, pivots, negative cycle flag
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Number of edges
+     */
+    public int edgeCount = 0;
+
+    private final Path path;
+    private final FileChannel channel;
+    /**
+     * Number of nodes
+     */
+    private final int nodeCount;
+    /**
+     * Edge length of the tiles
+     */
+    private final int tileSize;
+    private final int tileCount;
+    /**
+     * Number of pivots the matrix has been relaxed with
+     */
+    private int pivots;
+    /**
+     * Flag if negative cycle has been found
+     */
+    private boolean negativeCycle;
+    /**
+     * Tiles held in memory, least recently used first
+     */
+    private final TileCache cache;
+    /**
+     * Transfer buffer of one tile
+     */
+    private final ByteBuffer buffer;
+
+    private OutOfCoreFloydWarshall(Path path, FileChannel channel, int nodeCount, int tileSize, int pivots,
+                                boolean negativeCycle, int cachedTiles) {
+        this.path = path;
+        this.channel = channel;
+        this.nodeCount = nodeCount;
+        this.tileSize = tileSize;
+        this.tileCount = (nodeCount + tileSize - 1) / tileSize;
+        this.pivots = pivots;
+        this.negativeCycle = negativeCycle;
+        this.cache = new TileCache(cachedTiles);
+        this.buffer = ByteBuffer.allocateDirect(tileSize * tileSize * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Checks the tile size before a file is opened, so invalid arguments do not leak its channel.
+     */
+    private static void checkTileSize(int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        if ((long) tileSize * tileSize * Double.BYTES > Integer.MAX_VALUE) {
+            // One tile is transferred by a single buffer
+            throw new IllegalArgumentException("Tile size too large for a buffer: " + tileSize);
+        }
+    }
+
+    private static void checkCachedTiles(int cachedTiles) {
+        if (cachedTiles < 3) {
+            // Relaxing a tile needs two further tiles
+            throw new IllegalArgumentException("At least 3 tiles must be cached: " + cachedTiles);
+        }
+    }
+
+    /**
+     * Creates a new file for a graph without edges.
+     *
+     * @param path File, overwritten if it exists
+     * @param nodeCount Number of nodes
+     * @param tileSize Edge length of the tiles
+     * @param cachedTiles Number of tiles held in memory
+     * @return Matrix stored in file
+     * @throws IOException If file can not be written
+     */
+    public static OutOfCoreFloydWarshall create(Path path, int nodeCount, int tileSize, int cachedTiles)
+            throws IOException {
+        checkTileSize(tileSize);
+        checkCachedTiles(cachedTiles);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            OutOfCoreFloydWarshall graph = new OutOfCoreFloydWarshall(path, channel, nodeCount, tileSize, 0, false,
+                    cachedTiles);
+
+            // No edges, every node reaches itself
+            double[] tile = new double[tileSize * tileSize];
+            for (int row = 0; row < graph.tileCount; row++) {
+                for (int col = 0; col < graph.tileCount; col++) {
+                    Arrays.fill(tile, Double.POSITIVE_INFINITY);
+                    if (row == col) {
+                        for (int x = 0; x < tileSize; x++) {
+                            tile[x * tileSize + x] = 0;
+                        }
+                    }
+                    graph.write(row * graph.tileCount + col, tile);
+                }
+            }
+            graph.writeHeader();
+            return graph;
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static OutOfCoreFloydWarshall create(Path path, int nodeCount) throws IOException {
+        return create(path, nodeCount, FloydWarshall.DEFAULT_TILE_SIZE, DEFAULT_CACHED_TILES);
+    }
+
+    /**
+     * Opens a file written before.
+     *
+     * @param path File
+     * @param cachedTiles Number of tiles held in memory
+     * @return Matrix stored in file
+     * @throws IOException If file can not be read or is not a matrix file
+     */
+    public static OutOfCoreFloydWarshall open(Path path, int cachedTiles) throws IOException {
+        checkCachedTiles(cachedTiles);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a distance matrix file: " + path);
+            }
+            int nodeCount = header.getInt();
+            int tileSize = header.getInt();
+            int pivots = header.getInt();
+            boolean negativeCycle = header.getInt() != 0;
+            checkTileSize(tileSize);
+            return new OutOfCoreFloydWarshall(path, channel, nodeCount, tileSize, pivots, negativeCycle,
+                    cachedTiles);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns costs of shortest path between i and j, using v0, ..., vk-1 as possible hops.
+     * @param i From node
+     * @param j To node
+     * @param k Nodes v0, ... , vk-1 that can be used for hops
+     * @return Costs of shortest path or "Neg.Cycle" if negative cycle detected
+     */
+    public String shortestPath(int i, int j, int k) {
+        if (relax(k)) {
+            if (getNumberOfNodes() > 0) {
+                return String.valueOf(distance(i, j));
+            } else {
+                // No node results in no path
+                return String.valueOf(0D);
+            }
+        } else {
+            // Negative cycle
+            return FloydWarshall.NEGATIVE_CYCLE;
+        }
+    }
+
+    /**
+     * Relaxes the matrix until v0, ..., vk-1 are used as possible hops, then writes all
+     * tiles and the number of pivots to the file.
+     *
+     * @param k Nodes v0, ... , vk-1 that can be used for hops
+     * @return If matrix is valid, or if negative cycle has been found
+     */
+    public boolean relax(int k) {
+        int target = Math.min(k, nodeCount);
+        if (target < pivots) {
+            throw new IllegalStateException("Pivots can not be removed: " + k + " < " + pivots);
+        }
+        if (target > pivots && !negativeCycle) {
+            for (int blockFrom = pivots; blockFrom < target; ) {
+                int block = blockFrom / tileSize;
+                int last = Math.min((block + 1) * tileSize, target);
+                relaxBlock(block, blockFrom, last);
+                blockFrom = last;
+            }
+            pivots = target;
+
+            // Check for negative cycles
+            for (int b = 0; b < nodeCount && !negativeCycle; b++) {
+                negativeCycle = distance(b, b) < 0;
+            }
+            flush();
+        }
+        return !negativeCycle;
+    }
+
+    /**
+     * Relaxes all tiles with pivots of one block: first the diagonal tile, then the tiles
+     * in the block's row and column, then all remaining tiles.
+     */
+    private void relaxBlock(int block, int pivotFrom, int pivotTo) {
+        double[] diagonal = tile(block, block, true);
+        relaxTile(diagonal, diagonal, diagonal, block, pivotFrom, pivotTo);
+
+        for (int other = 0; other < tileCount; other++) {
+            if (other != block) {
+                double[] rowTile = tile(block, other, true);
+                relaxTile(rowTile, tile(block, block, false), rowTile, block, pivotFrom, pivotTo);
+                double[] colTile = tile(other, block, true);
+                relaxTile(colTile, colTile, tile(block, block, false), block, pivotFrom, pivotTo);
+            }
+        }
+
+        for (int row = 0; row < tileCount; row++) {
+            if (row == block) {
+                continue;
+            }
+            for (int col = 0; col < tileCount; col++) {
+                if (col != block) {
+                    // Fetch sources first, the target is then the most recently used tile
+                    double[] toPivot = tile(row, block, false);
+                    double[] fromPivot = tile(block, col, false);
+                    relaxTile(tile(row, col, true), toPivot, fromPivot, block, pivotFrom, pivotTo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adjusts costs of a tile using the given pivots as hops.
+     *
+     * @param target Tile to relax
+     * @param toPivot Tile in the same tile row and the block's tile column
+     * @param fromPivot Tile in the block's tile row and the same tile column
+     * @param block Tile index of the pivots
+     * @param pivotFrom First pivot
+     * @param pivotTo Pivot after last pivot
+     */
+    private void relaxTile(double[] target, double[] toPivot, double[] fromPivot, int block, int pivotFrom,
+                           int pivotTo) {
+        for (int a = pivotFrom - block * tileSize; a < pivotTo - block * tileSize; a++) {
+            int pivotRow = a * tileSize;
+            for (int x = 0; x < tileSize; x++) {
+                int row = x * tileSize;
+                double costs = toPivot[row + a];
+                if (costs == Double.POSITIVE_INFINITY) {
+                    // Pivot not reachable, no costs can be improved
+                    continue;
+                }
+                for (int y = 0; y < tileSize; y++) {
+                    double updated = costs + fromPivot[pivotRow + y];
+                    double current = target[row + y];
+                    target[row + y] = updated < current ? updated : current;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Costs of shortest path found so far, infinity if j is not reachable
+     */
+    public double distance(int i, int j) {
+        return tile(i / tileSize, j / tileSize, false)[(i % tileSize) * tileSize + j % tileSize];
+    }
+
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (pivots > 0) {
+            throw new IllegalStateException("Matrix is relaxed, edges can not be added after first query");
+        }
+        tile(nodeFrom / tileSize, nodeTo / tileSize, true)[(nodeFrom % tileSize) * tileSize + nodeTo % tileSize]
+                = weight;
+        edgeCount++;
+    }
+
+    /**
+     * Returns a tile from the cache, loading it from the file if necessary.
+     *
+     * @param row Tile row
+     * @param col Tile column
+     * @param modify If the tile will be modified and has to be written back
+     * @return Costs of the tile in row-major order
+     */
+    private double[] tile(int row, int col, boolean modify) {
+        int index = row * tileCount + col;
+        Tile tile = cache.get(index);
+        if (tile == null) {
+            tile = new Tile(new double[tileSize * tileSize]);
+            read(index, tile.values);
+            cache.put(index, tile);
+        }
+        tile.dirty |= modify;
+        return tile.values;
+    }
+
+    /**
+     * Writes all cached tiles and the header to the file.
+     */
+    public void flush() {
+        for (Map.Entry<Integer, Tile> entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                write(entry.getKey(), entry.getValue().values);
+                entry.getValue().dirty = false;
+            }
+        }
+        writeHeader();
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes all changed tiles and closes the file, further calls have no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        flush();
+        cache.clear();
+        channel.close();
+    }
+
+    private void read(int index, double[] tile) {
+        buffer.clear();
+        try {
+            readFully(channel, buffer, offset(index));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        buffer.asDoubleBuffer().get(tile);
+    }
+
+    private void write(int index, double[] tile) {
+        buffer.clear();
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        doubles.put(tile);
+        try {
+            long position = offset(index);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(nodeCount).putInt(tileSize).putInt(pivots).putInt(negativeCycle ? 1 : 0);
+        header.clear();
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private long offset(int index) {
+        return HEADER_SIZE + (long) index * tileSize * tileSize * Double.BYTES;
+    }
+
+    public boolean hasNegativeCycle() {
+        return negativeCycle;
+    }
+
+    /**
+     * @return Number of pivots v0, ..., vk-1 used as possible hops
+     */
+    public int getPivots() {
+        return pivots;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Least recently used tiles, written back to the file when evicted.
+     */
+    private class TileCache extends LinkedHashMap<Integer, Tile> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        TileCache(int capacity) {
+            super(2 * capacity, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Tile> eldest) {
+            if (size() > capacity) {
+                if (eldest.getValue().dirty) {
+                    write(eldest.getKey(), eldest.getValue().values);
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Tile held in memory.
+     */
+    private static class Tile {
+        private final double[] values;
+        /**
+         * Flag if tile differs from the file
+         */
+        private boolean dirty = false;
+
+        Tile(double[] values) {
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+import util.ResidualGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Calculates max flow and min cut in a s/t network with push-relabel, discharging all active
+ * nodes of a round in parallel. A round has two steps, each running on the pool:
+ * <ol>
+ * <li>Push: every active node pushes its excess over admissible arcs. Heights do not change
+ * in this step, and an arc and its reverse are never admissible at the same time, so each
+ * pair of arcs is modified by one thread only. Excess is added atomically, since several
+ * nodes may push into the same node.</li>
+ * <li>Relabel: nodes with excess left are lifted above their lowest residual neighbour,
+ * using the heights from before the step. Heights only grow, so they stay valid.</li>
+ * </ol>
+ * A global relabel by a parallel reverse BFS from t restores exact heights after every
+ * n relabels. Like {@link PushRelabel} only the first phase is run.
+ */
+public class ParallelPushRelabel {
+
+    /**
+     * Nodes below this count are processed by the current task
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private ResidualGraph.Builder builder;
+    /**
+     * Residual network with paired reverse arcs
+     */
+    private ResidualGraph graph;
+    /**
+     * Pool discharging nodes in parallel, null for sequential execution
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+
+    /**
+     * Height per node, nodes with height nodeCount can not reach t
+     */
+    private int[] height;
+    /**
+     * Inflow minus outflow per node, as bits of a double to allow atomic additions
+     */
+    private AtomicLongArray excess;
+
+    /**
+     * Active nodes of the current round and the nodes activated for the next round
+     */
+    private int[] active;
+    private int activeCount;
+    private int[] next;
+    private final AtomicInteger nextCount = new AtomicInteger();
+    /**
+     * Last round a node has been added to the next round, so it is added once
+     */
+    private AtomicIntegerArray scheduled;
+    private int round;
+    /**
+     * New height per position of the active nodes, -1 if not relabeled
+     */
+    private int[] lifted;
+    /**
+     * Number of relabels since the last global relabel
+     */
+    private final AtomicInteger relabels = new AtomicInteger();
+
+    /**
+     * Last global relabel a node has been reached by, so it is reached once
+     */
+    private AtomicIntegerArray reached;
+    private int epoch;
+
+    /**
+     * Nodes that can not reach t in the residual network after the last calculation
+     */
+    private BitSet sourceSide = new BitSet();
+
+    public ParallelPushRelabel(int nodeCount) {
+        this(nodeCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param pool Pool discharging nodes in parallel, null for sequential execution
+     */
+    public ParallelPushRelabel(int nodeCount, ForkJoinPool pool) {
+        this.builder = new ResidualGraph.Builder(nodeCount);
+        this.nodeCount = nodeCount;
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates max flow in a s/t network, starting without flow.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return Maximal possible flow
+     */
+    public double maxFlow(int s, int t) {
+        ResidualGraph graph = graph();
+        graph.clearFlow();
+        for (int node = 0; node < nodeCount; node++) {
+            excess.set(node, Double.doubleToRawLongBits(0));
+        }
+        sourceSide = new BitSet();
+        // No flow in empty graph or from a node to itself
+        if (nodeCount == 0 || s == t) return 0;
+
+        // Saturate all arcs leaving s
+        for (int arc = graph.firstArc(s); arc < graph.endArc(s); arc++) {
+            double residual = graph.residual(arc);
+            if (residual > 0) {
+                graph.push(arc, residual);
+                addExcess(s, -residual);
+                addExcess(graph.target(arc), residual);
+            }
+        }
+        globalRelabel(s, t);
+
+        nextCount.set(0);
+        round++;
+        for (int node = 0; node < nodeCount; node++) {
+            schedule(node, s, t);
+        }
+
+        while (nextCount.get() > 0) {
+            int[] swap = active;
+            active = next;
+            next = swap;
+            activeCount = nextCount.getAndSet(0);
+            round++;
+
+            forEach(activeCount, position -> discharge(active[position], s, t));
+            forEach(activeCount, position -> relabel(position));
+            forEach(activeCount, position -> {
+                int node = active[position];
+                if (lifted[position] != -1) {
+                    height[node] = lifted[position];
+                    schedule(node, s, t);
+                }
+            });
+
+            if (relabels.get() >= nodeCount) {
+                // Heights drifted from the distances to t
+                globalRelabel(s, t);
+            }
+        }
+
+        // Source side of the cut consists of the nodes not reaching t
+        globalRelabel(s, t);
+        for (int node = 0; node < nodeCount; node++) {
+            if (height[node] == nodeCount) {
+                sourceSide.set(node);
+            }
+        }
+        return excess(t);
+    }
+
+    /**
+     * Pushes excess of a node over admissible arcs. Only the node itself removes its excess,
+     * so the amount read stays available while other nodes add to it.
+     */
+    private void discharge(int cur, int s, int t) {
+        int level = height[cur];
+        if (level >= nodeCount) {
+            // Cut off from t by a global relabel
+            return;
+        }
+        for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+            double available = excess(cur);
+            if (available <= 0) {
+                break;
+            }
+            int other = graph.target(arc);
+            // Check heights first, the residual of arcs not admissible may change concurrently
+            if (height[other] == level - 1 && graph.residual(arc) > 0) {
+                double amount = Math.min(available, graph.residual(arc));
+                graph.push(arc, amount);
+                addExcess(cur, -amount);
+                addExcess(other, amount);
+                schedule(other, s, t);
+            }
+        }
+    }
+
+    /**
+     * Calculates the new height of an active node with excess left, all admissible arcs
+     * are saturated. Heights are only read here, they are updated in a separate step.
+     */
+    private void relabel(int position) {
+        int cur = active[position];
+        lifted[position] = -1;
+        if (height[cur] >= nodeCount || excess(cur) <= 0) {
+            return;
+        }
+
+        int lowest = nodeCount;
+        for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+            if (graph.residual(arc) > 0) {
+                lowest = Math.min(lowest, height[graph.target(arc)] + 1);
+            }
+        }
+        if (lowest > height[cur]) {
+            // Otherwise excess arrived after the push step, an admissible arc is left
+            lifted[position] = lowest;
+            relabels.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sets all heights to the residual distance to t with a reverse BFS, each level of the
+     * BFS is expanded in parallel. Nodes not reaching t and s get height nodeCount.
+     */
+    private void globalRelabel(int s, int t) {
+        relabels.set(0);
+        epoch++;
+        Arrays.fill(height, nodeCount);
+        height[t] = 0;
+        reached.set(t, epoch);
+
+        // The frontier uses the buffer of the current round, which is not needed meanwhile
+        int[] frontier = active;
+        frontier[0] = t;
+        int frontierCount = 1;
+        int[] expanded = lifted;
+        AtomicInteger expandedCount = new AtomicInteger();
+        for (int level = 1; frontierCount > 0; level++) {
+            final int[] current = frontier;
+            final int[] following = expanded;
+            final int depth = level;
+            forEach(frontierCount, position -> {
+                int cur = current[position];
+                for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+                    int other = graph.target(arc);
+                    // Reverse arc leads from other to cur
+                    if (other != s && graph.residual(graph.reverse(arc)) > 0 && reached.get(other) != epoch
+                            && reached.getAndSet(other, epoch) != epoch) {
+                        height[other] = depth;
+                        following[expandedCount.getAndIncrement()] = other;
+                    }
+                }
+            });
+
+            expanded = frontier;
+            frontier = following;
+            frontierCount = expandedCount.getAndSet(0);
+        }
+    }
+
+    /**
+     * Adds node to the next round if it has excess and can still reach t.
+     */
+    private void schedule(int node, int s, int t) {
+        if (node != s && node != t && height[node] < nodeCount && excess(node) > 0
+                && scheduled.getAndSet(node, round) != round) {
+            next[nextCount.getAndIncrement()] = node;
+        }
+    }
+
+    private double excess(int node) {
+        return Double.longBitsToDouble(excess.get(node));
+    }
+
+    private void addExcess(int node, double amount) {
+        long current;
+        do {
+            current = excess.get(node);
+        } while (!excess.compareAndSet(node, current,
+                Double.doubleToRawLongBits(Double.longBitsToDouble(current) + amount)));
+    }
+
+    /**
+     * Runs action for every position, in parallel if a pool is set.
+     * Returns after all positions have been processed.
+     *
+     * @param count Number of positions
+     * @param action Action per position
+     */
+    private void forEach(int count, IntConsumer action) {
+        if (pool == null || count <= SEQUENTIAL_THRESHOLD) {
+            for (int position = 0; position < count; position++) {
+                action.accept(position);
+            }
+        } else {
+            pool.invoke(new RangeTask(0, count, action));
+        }
+    }
+
+    /**
+     * Task splitting a range of positions until it is small enough.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int position = from; position < to; position++) {
+                    action.accept(position);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+            }
+        }
+    }
+
+    /**
+     * Freezes the collected edges into the residual graph on first use.
+     *
+     * @return Residual graph
+     */
+    private ResidualGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            height = new int[nodeCount];
+            excess = new AtomicLongArray(nodeCount);
+            active = new int[nodeCount];
+            next = new int[nodeCount];
+            lifted = new int[nodeCount];
+            scheduled = new AtomicIntegerArray(nodeCount);
+            reached = new AtomicIntegerArray(nodeCount);
+            // Release edge buffers
+            builder = null;
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the source side of a minimal cut: all nodes that can not reach t in the
+     * residual network.
+     *
+     * @return Nodes on the source side of the cut after the last calculation
+     */
+    public BitSet minCut() {
+        return (BitSet) sourceSide.clone();
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge.
+     *
+     * @return Id of edge, edges are numbered in insertion order
+     */
+    public int addEdge(int nodeFrom, int nodeTo, int capacity) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        return this.builder.addEdge(nodeFrom, nodeTo, capacity);
+    }
+}
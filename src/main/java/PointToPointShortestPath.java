@@ -0,0 +1,301 @@
+import util.CompressedGraph;
+import util.IndexedDaryHeap;
+
+import java.util.Arrays;
+
+/**
+ * Calculates shortest paths from one node in a directed, weighted graph.
+ * Without negative costs a bidirectional Dijkstra search answers a query between two
+ * nodes, stopping as soon as both searches meet on a shortest path. With negative costs
+ * the queue based variant of Bellman-Ford is used, which stops once no costs change.
+ * Search buffers are allocated once and reused by every query.
+ */
+public class PointToPointShortestPath {
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private CompressedGraph.Builder builder;
+    /**
+     * Adjacency and reversed adjacency in compressed sparse row format, edge weights are the costs
+     */
+    private CompressedGraph graph;
+    private CompressedGraph transposed;
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+    /**
+     * Flag if graph contains an edge with negative costs
+     */
+    private boolean hasNegativeEdge = false;
+
+    /**
+     * Costs from the source resp. to the target, valid if reached stamp equals epoch
+     */
+    private double[] forwardCosts;
+    private double[] backwardCosts;
+    private int[] forwardReached;
+    private int[] backwardReached;
+    /**
+     * Current query generation
+     */
+    private int epoch = 0;
+    /**
+     * Heaps of both searches
+     */
+    private IndexedDaryHeap forwardHeap;
+    private IndexedDaryHeap backwardHeap;
+    /**
+     * Ring queue of Bellman-Ford, queued flag and number of edges on the current path per node
+     */
+    private int[] queue;
+    private int[] queued;
+    private int[] hops;
+
+    public PointToPointShortestPath(int nodeCount) {
+        this.builder = new CompressedGraph.Builder(nodeCount, true);
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Returns costs of shortest path between i and j.
+     *
+     * @param i From node
+     * @param j To node
+     * @return Costs of shortest path or "Neg.Cycle" if negative cycle is reachable from i
+     */
+    public String shortestPath(int i, int j) {
+        try {
+            return String.valueOf(distance(i, j));
+        } catch (IllegalStateException e) {
+            return FloydWarshall.NEGATIVE_CYCLE;
+        }
+    }
+
+    /**
+     * @param source From node
+     * @param target To node
+     * @return Costs of shortest path, infinity if target is not reachable
+     * @throws IllegalStateException If a negative cycle is reachable from source
+     */
+    public double distance(int source, int target) {
+        graph();
+        nextEpoch();
+
+        if (hasNegativeEdge) {
+            bellmanFord(source);
+            return forwardReached[target] == epoch ? forwardCosts[target] : Double.POSITIVE_INFINITY;
+        }
+        return bidirectional(source, target);
+    }
+
+    /**
+     * @param source From node
+     * @return Costs of shortest paths to every node, infinity if not reachable
+     * @throws IllegalStateException If a negative cycle is reachable from source
+     */
+    public double[] distancesFrom(int source) {
+        graph();
+        nextEpoch();
+
+        if (hasNegativeEdge) {
+            bellmanFord(source);
+        } else {
+            forwardHeap.clear();
+            reach(forwardCosts, forwardReached, forwardHeap, source, 0);
+            while (!forwardHeap.isEmpty()) {
+                settle(graph, forwardHeap, forwardCosts, forwardReached, null, null, Double.POSITIVE_INFINITY);
+            }
+        }
+
+        double[] distances = new double[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            distances[node] = forwardReached[node] == epoch ? forwardCosts[node] : Double.POSITIVE_INFINITY;
+        }
+        return distances;
+    }
+
+    /**
+     * Alternately expands the smaller of a forward search from source and a backward search
+     * from target. Stops once the smallest open costs of both searches sum up to at least
+     * the best path found, no path through an open node can be shorter then.
+     */
+    private double bidirectional(int source, int target) {
+        if (source == target) {
+            return 0;
+        }
+
+        forwardHeap.clear();
+        backwardHeap.clear();
+        reach(forwardCosts, forwardReached, forwardHeap, source, 0);
+        reach(backwardCosts, backwardReached, backwardHeap, target, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            if (forwardHeap.key(forwardHeap.peek()) + backwardHeap.key(backwardHeap.peek()) >= best) {
+                break;
+            }
+            if (forwardHeap.size() <= backwardHeap.size()) {
+                best = settle(graph, forwardHeap, forwardCosts, forwardReached, backwardCosts, backwardReached, best);
+            } else {
+                best = settle(transposed, backwardHeap, backwardCosts, backwardReached, forwardCosts, forwardReached,
+                        best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Settles the next node of a search and relaxes its edges.
+     *
+     * @param graph Adjacency in search direction
+     * @param heap Open nodes of the search
+     * @param costs Costs of the search
+     * @param reached Reached stamps of the search
+     * @param otherCosts Costs of the opposite search, null if there is none
+     * @param otherReached Reached stamps of the opposite search
+     * @param best Costs of best path found so far
+     * @return Costs of best path found
+     */
+    private double settle(CompressedGraph graph, IndexedDaryHeap heap, double[] costs, int[] reached,
+                          double[] otherCosts, int[] otherReached, double best) {
+        int cur = heap.poll();
+        double current = costs[cur];
+
+        for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+            int neighbour = graph.target(edge);
+            double updated = current + graph.weight(edge);
+            if (reached[neighbour] != epoch) {
+                reach(costs, reached, heap, neighbour, updated);
+            } else if (heap.contains(neighbour) && updated < costs[neighbour]) {
+                costs[neighbour] = updated;
+                heap.push(neighbour, updated);
+            }
+            if (otherCosts != null && otherReached[neighbour] == epoch) {
+                // Searches meet on this edge
+                best = Math.min(best, updated + otherCosts[neighbour]);
+            }
+        }
+        return best;
+    }
+
+    private void reach(double[] costs, int[] reached, IndexedDaryHeap heap, int node, double value) {
+        costs[node] = value;
+        reached[node] = epoch;
+        heap.push(node, value);
+    }
+
+    /**
+     * Queue based Bellman-Ford from source. Only nodes whose costs changed are processed again,
+     * the search ends as soon as no costs change. A path with n edges contains a cycle,
+     * if it is still improving the cycle is negative.
+     *
+     * @param source Start node
+     */
+    private void bellmanFord(int source) {
+        int head = 0;
+        int size = 0;
+        forwardCosts[source] = 0;
+        forwardReached[source] = epoch;
+        hops[source] = 0;
+        queue[size++] = source;
+        queued[source] = epoch;
+
+        while (size > 0) {
+            int cur = queue[head];
+            head = head + 1 == nodeCount ? 0 : head + 1;
+            size--;
+            queued[cur] = 0;
+
+            double current = forwardCosts[cur];
+            for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                int neighbour = graph.target(edge);
+                double updated = current + graph.weight(edge);
+                if (forwardReached[neighbour] != epoch || updated < forwardCosts[neighbour]) {
+                    forwardCosts[neighbour] = updated;
+                    forwardReached[neighbour] = epoch;
+                    hops[neighbour] = hops[cur] + 1;
+                    if (hops[neighbour] >= nodeCount) {
+                        throw new IllegalStateException(FloydWarshall.NEGATIVE_CYCLE);
+                    }
+                    if (queued[neighbour] != epoch) {
+                        queued[neighbour] = epoch;
+                        int tail = head + size;
+                        queue[tail >= nodeCount ? tail - nodeCount : tail] = neighbour;
+                        size++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new query. Stamps of previous queries become invalid,
+     * so the buffers do not have to be cleared.
+     */
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // Stamps would overflow, start again
+            Arrays.fill(forwardReached, 0);
+            if (hasNegativeEdge) {
+                Arrays.fill(queued, 0);
+            } else {
+                Arrays.fill(backwardReached, 0);
+            }
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Freezes the collected edges into the compressed adjacency on first use
+     * and allocates the search buffers.
+     *
+     * @return Compressed adjacency
+     */
+    private CompressedGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            // Release edge buffers
+            builder = null;
+
+            for (int edge = 0; edge < graph.getNumberOfEdges(); edge++) {
+                if (graph.weight(edge) < 0) {
+                    hasNegativeEdge = true;
+                }
+            }
+
+            forwardCosts = new double[nodeCount];
+            forwardReached = new int[nodeCount];
+            if (hasNegativeEdge) {
+                queue = new int[nodeCount];
+                queued = new int[nodeCount];
+                hops = new int[nodeCount];
+            } else {
+                transposed = graph.transpose();
+                backwardCosts = new double[nodeCount];
+                backwardReached = new int[nodeCount];
+                forwardHeap = new IndexedDaryHeap(nodeCount);
+                backwardHeap = new IndexedDaryHeap(nodeCount);
+            }
+        }
+        return graph;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge. Edges with infinite costs do not exist and are skipped.
+     */
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        if (weight != Double.POSITIVE_INFINITY) {
+            this.builder.addEdge(nodeFrom, nodeTo, weight);
+        }
+    }
+}
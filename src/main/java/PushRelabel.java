@@ -0,0 +1,279 @@
+import util.ResidualGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Calculates max flow and min cut in a s/t network with the FIFO push-relabel algorithm.
+ * Instead of searching augmenting paths, nodes push their excess towards lower neighbours
+ * and are lifted when no such neighbour is left. Two heuristics keep the heights exact:
+ * a global relabel sets all heights to the residual distance to t by a reverse BFS, and a
+ * height without nodes (gap) lifts all higher nodes out of reach of t at once.
+ * Only the first phase is run: it moves the maximal flow into t and leaves the remaining
+ * excess in nodes that can not reach t, which does not change the flow value or the cut.
+ */
+public class PushRelabel {
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private ResidualGraph.Builder builder;
+    /**
+     * Residual network with paired reverse arcs
+     */
+    private ResidualGraph graph;
+
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+
+    /**
+     * Height per node, nodes with height nodeCount can not reach t
+     */
+    private int[] height;
+    /**
+     * Inflow minus outflow per node
+     */
+    private double[] excess;
+    /**
+     * Next arc to try per node
+     */
+    private int[] currentArc;
+    /**
+     * Number of nodes per height below nodeCount
+     */
+    private int[] count;
+    /**
+     * Ring of active nodes, every node is contained at most once
+     */
+    private int[] queue;
+    private boolean[] queued;
+    private int head;
+    private int size;
+    /**
+     * Queue of the reverse BFS, separate from the active nodes
+     */
+    private int[] bfs;
+
+    /**
+     * Nodes that can not reach t in the residual network after the last calculation
+     */
+    private BitSet sourceSide = new BitSet();
+
+    /**
+     * Number of relabels since the last global relabel
+     */
+    private int relabels;
+
+    public PushRelabel(int nodeCount) {
+        this.builder = new ResidualGraph.Builder(nodeCount);
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Calculates max flow in a s/t network, starting without flow.
+     *
+     * @param s Source node
+     * @param t Target node
+     * @return Maximal possible flow
+     */
+    public double maxFlow(int s, int t) {
+        ResidualGraph graph = graph();
+        graph.clearFlow();
+        Arrays.fill(excess, 0);
+        head = 0;
+        size = 0;
+        sourceSide = new BitSet();
+        // No flow in empty graph or from a node to itself
+        if (nodeCount == 0 || s == t) return 0;
+
+        // Saturate all arcs leaving s
+        for (int arc = graph.firstArc(s); arc < graph.endArc(s); arc++) {
+            double residual = graph.residual(arc);
+            if (residual > 0) {
+                graph.push(arc, residual);
+                excess[s] -= residual;
+                excess[graph.target(arc)] += residual;
+            }
+        }
+        globalRelabel(s, t);
+        for (int node = 0; node < nodeCount; node++) {
+            activate(node, s, t);
+        }
+
+        while (size > 0) {
+            int cur = queue[head];
+            head = (head + 1) % nodeCount;
+            size--;
+            queued[cur] = false;
+            discharge(cur, s, t);
+
+            if (relabels >= nodeCount) {
+                // Heights drifted from the distances to t
+                globalRelabel(s, t);
+            }
+        }
+
+        // Source side of the cut consists of the nodes not reaching t
+        globalRelabel(s, t);
+        for (int node = 0; node < nodeCount; node++) {
+            if (height[node] == nodeCount) {
+                sourceSide.set(node);
+            }
+        }
+        return excess[t];
+    }
+
+    /**
+     * Pushes excess of a node to lower neighbours, relabels it when no admissible arc is
+     * left, until its excess is gone or it can not reach t anymore.
+     */
+    private void discharge(int cur, int s, int t) {
+        int end = graph.endArc(cur);
+        while (excess[cur] > 0 && height[cur] < nodeCount) {
+            int arc = currentArc[cur];
+            if (arc == end) {
+                relabel(cur);
+                currentArc[cur] = graph.firstArc(cur);
+                continue;
+            }
+
+            int other = graph.target(arc);
+            double residual = graph.residual(arc);
+            if (residual > 0 && height[cur] == height[other] + 1) {
+                double amount = Math.min(excess[cur], residual);
+                graph.push(arc, amount);
+                excess[cur] -= amount;
+                excess[other] += amount;
+                activate(other, s, t);
+                if (residual > amount) {
+                    // Arc still admissible, excess is gone
+                    break;
+                }
+            }
+            currentArc[cur]++;
+        }
+    }
+
+    /**
+     * Lifts a node just above its lowest residual neighbour. If its old height becomes
+     * empty, all nodes above it are cut off from t.
+     */
+    private void relabel(int cur) {
+        relabels++;
+        int old = height[cur];
+        int lowest = nodeCount;
+        for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+            if (graph.residual(arc) > 0) {
+                lowest = Math.min(lowest, height[graph.target(arc)] + 1);
+            }
+        }
+
+        count[old]--;
+        if (count[old] == 0) {
+            // Gap, nodes above can not reach t anymore
+            for (int node = 0; node < nodeCount; node++) {
+                if (height[node] > old && height[node] < nodeCount) {
+                    count[height[node]]--;
+                    height[node] = nodeCount;
+                }
+            }
+            lowest = nodeCount;
+        }
+        height[cur] = Math.min(lowest, nodeCount);
+        if (height[cur] < nodeCount) {
+            count[height[cur]]++;
+        }
+    }
+
+    /**
+     * Sets all heights to the residual distance to t with a reverse BFS,
+     * nodes not reaching t and s get height nodeCount.
+     */
+    private void globalRelabel(int s, int t) {
+        relabels = 0;
+        Arrays.fill(height, nodeCount);
+        Arrays.fill(count, 0);
+        height[t] = 0;
+        count[0] = 1;
+
+        bfs[0] = t;
+        int bfsHead = 0;
+        int bfsTail = 1;
+        while (bfsHead < bfsTail) {
+            int cur = bfs[bfsHead++];
+            for (int arc = graph.firstArc(cur); arc < graph.endArc(cur); arc++) {
+                int other = graph.target(arc);
+                // Reverse arc leads from other to cur
+                if (other != s && height[other] == nodeCount && graph.residual(graph.reverse(arc)) > 0) {
+                    height[other] = height[cur] + 1;
+                    count[height[other]]++;
+                    bfs[bfsTail++] = other;
+                }
+            }
+        }
+
+        for (int node = 0; node < nodeCount; node++) {
+            currentArc[node] = graph.firstArc(node);
+        }
+    }
+
+    /**
+     * Appends node to the active nodes if it has excess and can still reach t.
+     */
+    private void activate(int node, int s, int t) {
+        if (node != s && node != t && !queued[node] && excess[node] > 0 && height[node] < nodeCount) {
+            queue[(head + size) % nodeCount] = node;
+            size++;
+            queued[node] = true;
+        }
+    }
+
+    /**
+     * Freezes the collected edges into the residual graph on first use.
+     *
+     * @return Residual graph
+     */
+    private ResidualGraph graph() {
+        if (graph == null) {
+            graph = builder.build();
+            height = new int[nodeCount];
+            excess = new double[nodeCount];
+            currentArc = new int[nodeCount];
+            count = new int[nodeCount + 1];
+            queue = new int[nodeCount];
+            queued = new boolean[nodeCount];
+            bfs = new int[nodeCount];
+            // Release edge buffers
+            builder = null;
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the source side of a minimal cut: all nodes that can not reach t in the
+     * residual network. Edges leaving it are saturated and their capacities sum up to the max flow.
+     *
+     * @return Nodes on the source side of the cut after the last calculation
+     */
+    public BitSet minCut() {
+        return (BitSet) sourceSide.clone();
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge.
+     *
+     * @return Id of edge, edges are numbered in insertion order
+     */
+    public int addEdge(int nodeFrom, int nodeTo, int capacity) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        return this.builder.addEdge(nodeFrom, nodeTo, capacity);
+    }
+}
@@ -0,0 +1,376 @@
+import util.CompressedGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates the strongly connected components of a directed graph in parallel.
+ * Uses the forward-backward algorithm with trimming: the forward and backward
+ * reachable sets of a pivot intersect in the pivot's component, and the three
+ * remaining parts of the subproblem are processed independently on a fork-join pool.
+ */
+public class StronglyConnectedComponents {
+
+    /**
+     * Subproblems below this size are processed by the current task
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    /**
+     * Label of nodes already assigned to a component
+     */
+    private static final int REMOVED = 0;
+
+    /**
+     * Collects edges until the graph is frozen
+     */
+    private CompressedGraph.Builder builder;
+    /**
+     * Adjacency and reversed adjacency in compressed sparse row format
+     */
+    private CompressedGraph graph;
+    private CompressedGraph transposed;
+    /**
+     * Pool executing the subproblems, null for sequential execution
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Number of nodes
+     */
+    private int nodeCount;
+    /**
+     * Flag if graph contains a loop
+     */
+    private boolean hasLoop = false;
+
+    /**
+     * Component per node, null until calculated
+     */
+    private int[] componentId;
+    private int componentCount;
+    /**
+     * Label of the subproblem every node belongs to
+     */
+    private int[] partition;
+    /**
+     * Label of the subproblem whose forward resp. backward search reached the node
+     */
+    private int[] forwardMark;
+    private int[] backwardMark;
+    /**
+     * Degrees within the node's subproblem, used for trimming
+     */
+    private int[] inDegree;
+    private int[] outDegree;
+    private AtomicInteger nextLabel;
+    private AtomicInteger nextComponent;
+
+    public StronglyConnectedComponents(int nodeCount) {
+        this(nodeCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param pool Pool processing independent subproblems in parallel, null for sequential execution
+     */
+    public StronglyConnectedComponents(int nodeCount, ForkJoinPool pool) {
+        this.builder = new CompressedGraph.Builder(nodeCount, false);
+        this.nodeCount = nodeCount;
+        this.pool = pool;
+    }
+
+    /**
+     * Checks if directed graph has cycle, i.e. a component with more than one node or a loop.
+     *
+     * @return If graph has cycle
+     */
+    public boolean hasCycle() {
+        if (hasLoop) {
+            return true;
+        }
+
+        int[] ids = components();
+        int[] sizes = new int[componentCount];
+        for (int i = 0; i < nodeCount; i++) {
+            if (++sizes[ids[i]] > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Component id per node, ids range from 0 to number of components - 1
+     */
+    public int[] componentIds() {
+        return components().clone();
+    }
+
+    public int getNumberOfComponents() {
+        components();
+        return componentCount;
+    }
+
+    private int[] components() {
+        if (componentId == null) {
+            graph = builder.build();
+            transposed = graph.transpose();
+            // Release edge buffers
+            builder = null;
+
+            componentId = new int[nodeCount];
+            partition = new int[nodeCount];
+            forwardMark = new int[nodeCount];
+            backwardMark = new int[nodeCount];
+            inDegree = new int[nodeCount];
+            outDegree = new int[nodeCount];
+            nextLabel = new AtomicInteger(REMOVED + 1);
+            nextComponent = new AtomicInteger();
+
+            if (nodeCount > 0) {
+                // Initially all nodes form one subproblem
+                int[] nodes = new int[nodeCount];
+                int label = nextLabel.getAndIncrement();
+                for (int i = 0; i < nodeCount; i++) {
+                    nodes[i] = i;
+                    partition[i] = label;
+                }
+                Partition root = new Partition(null, nodes);
+                if (pool == null) {
+                    root.compute();
+                } else {
+                    pool.invoke(root);
+                }
+            }
+            componentCount = nextComponent.get();
+
+            // Release work buffers
+            partition = null;
+            forwardMark = null;
+            backwardMark = null;
+            inDegree = null;
+            outDegree = null;
+        }
+        return componentId;
+    }
+
+    /**
+     * Task processing a subproblem. Large subproblems resulting from a split are forked,
+     * small ones are processed by this task, so deep splits do not grow the call stack.
+     * Without a pool, all subproblems are processed by the root task.
+     */
+    private class Partition extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private int[] nodes;
+
+        Partition(CountedCompleter<?> parent, int[] nodes) {
+            super(parent);
+            this.nodes = nodes;
+        }
+
+        @Override
+        public void compute() {
+            ArrayDeque<int[]> work = new ArrayDeque<>();
+            work.push(nodes);
+            // Completed tasks stay referenced by their children, release nodes early
+            nodes = null;
+
+            while (!work.isEmpty()) {
+                for (int[] part : split(work.pop())) {
+                    if (pool != null && part.length >= SEQUENTIAL_THRESHOLD) {
+                        addToPendingCount(1);
+                        new Partition(this, part).fork();
+                    } else {
+                        work.push(part);
+                    }
+                }
+            }
+
+            tryComplete();
+        }
+    }
+
+    /**
+     * Assigns the trivial components and the pivot's component of a subproblem.
+     * Nodes of other subproblems may be relabelled concurrently, but never to this
+     * subproblem's label, so reading their labels is safe.
+     *
+     * @param nodes Nodes of the subproblem, all with the same label
+     * @return Remaining subproblems, each with a new label
+     */
+    private List<int[]> split(int[] nodes) {
+        List<int[]> parts = new ArrayList<>(3);
+        int label = partition[nodes[0]];
+
+        if (trim(nodes, label) == 0) {
+            // All nodes are trivial components
+            return parts;
+        }
+
+        int pivot = -1;
+        for (int i = 0; pivot == -1; i++) {
+            if (partition[nodes[i]] == label) {
+                pivot = nodes[i];
+            }
+        }
+
+        // Nodes reachable from and reaching the pivot
+        int[] queue = new int[nodes.length];
+        search(graph, pivot, label, forwardMark, queue);
+        search(transposed, pivot, label, backwardMark, queue);
+
+        // Intersection is the pivot's component, count the other parts
+        int component = nextComponent.getAndIncrement();
+        int forwardOnly = 0;
+        int backwardOnly = 0;
+        int neither = 0;
+        for (int node : nodes) {
+            if (partition[node] != label) {
+                continue;
+            }
+            boolean forward = forwardMark[node] == label;
+            boolean backward = backwardMark[node] == label;
+            if (forward && backward) {
+                componentId[node] = component;
+                partition[node] = REMOVED;
+            } else if (forward) {
+                forwardOnly++;
+            } else if (backward) {
+                backwardOnly++;
+            } else {
+                neither++;
+            }
+        }
+
+        int[] forwardPart = new int[forwardOnly];
+        int[] backwardPart = new int[backwardOnly];
+        int[] neitherPart = new int[neither];
+        int forwardLabel = nextLabel.getAndIncrement();
+        int backwardLabel = nextLabel.getAndIncrement();
+        int neitherLabel = nextLabel.getAndIncrement();
+        forwardOnly = 0;
+        backwardOnly = 0;
+        neither = 0;
+        for (int node : nodes) {
+            if (partition[node] != label) {
+                continue;
+            }
+            if (forwardMark[node] == label) {
+                forwardPart[forwardOnly++] = node;
+                partition[node] = forwardLabel;
+            } else if (backwardMark[node] == label) {
+                backwardPart[backwardOnly++] = node;
+                partition[node] = backwardLabel;
+            } else {
+                neitherPart[neither++] = node;
+                partition[node] = neitherLabel;
+            }
+        }
+
+        if (forwardPart.length > 0) parts.add(forwardPart);
+        if (backwardPart.length > 0) parts.add(backwardPart);
+        if (neitherPart.length > 0) parts.add(neitherPart);
+        return parts;
+    }
+
+    /**
+     * Repeatedly removes nodes without incoming or outgoing edges within the subproblem,
+     * each of them is a component on its own.
+     *
+     * @param nodes Nodes of the subproblem
+     * @param label Label of the subproblem
+     * @return Number of remaining nodes
+     */
+    private int trim(int[] nodes, int label) {
+        int[] queue = new int[2 * nodes.length];
+        int head = 0;
+        int tail = 0;
+
+        // Degrees within subproblem
+        for (int node : nodes) {
+            inDegree[node] = countNeighbours(transposed, node, label);
+            outDegree[node] = countNeighbours(graph, node, label);
+            if (inDegree[node] == 0 || outDegree[node] == 0) {
+                queue[tail++] = node;
+            }
+        }
+
+        int removed = 0;
+        while (head < tail) {
+            int cur = queue[head++];
+            if (partition[cur] != label) {
+                // Already removed
+                continue;
+            }
+            partition[cur] = REMOVED;
+            componentId[cur] = nextComponent.getAndIncrement();
+            removed++;
+
+            for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                int neighbour = graph.target(edge);
+                if (partition[neighbour] == label && --inDegree[neighbour] == 0) {
+                    queue[tail++] = neighbour;
+                }
+            }
+            for (int edge = transposed.firstEdge(cur); edge < transposed.endEdge(cur); edge++) {
+                int neighbour = transposed.target(edge);
+                if (partition[neighbour] == label && --outDegree[neighbour] == 0) {
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        return nodes.length - removed;
+    }
+
+    private int countNeighbours(CompressedGraph graph, int node, int label) {
+        int count = 0;
+        for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+            if (partition[graph.target(edge)] == label) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Breadth first search within a subproblem, marking reached nodes with the subproblem's label.
+     */
+    private void search(CompressedGraph graph, int start, int label, int[] mark, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        mark[start] = label;
+
+        while (head < tail) {
+            int cur = queue[head++];
+            for (int edge = graph.firstEdge(cur); edge < graph.endEdge(cur); edge++) {
+                int neighbour = graph.target(edge);
+                if (partition[neighbour] == label && mark[neighbour] != label) {
+                    mark[neighbour] = label;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    public void addEdge(int nodeFrom, int nodeTo, int weight) {
+        if (builder == null) {
+            throw new IllegalStateException("Graph is frozen, edges can not be added after first query");
+        }
+        if (nodeFrom == nodeTo) {
+            // Loop is a cycle, but does not connect different nodes
+            hasLoop = true;
+        }
+        // Weight is no saved, as not used for component detection
+        this.builder.addEdge(nodeFrom, nodeTo);
+    }
+}
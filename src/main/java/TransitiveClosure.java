@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates which nodes of a directed graph can reach each other (Warshall).
+ * Every row of the relation is a bitset of 64 nodes per word, so a pivot step
+ * combines a whole row with one OR per word instead of one update per pair.
+ * Rows are independent within a pivot step and are combined in parallel.
+ */
+public class TransitiveClosure {
+
+    /**
+     * Rows below this count are combined by the current task
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    /**
+     * Relation in row-major order, row a holds the nodes reachable from a
+     */
+    private final long[] rows;
+    /**
+     * Number of words per row
+     */
+    private final int words;
+    /**
+     * Number of nodes
+     */
+    private final int nodeCount;
+    /**
+     * Pool combining rows in parallel, null for sequential execution
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Flag if closure has been calculated
+     */
+    private boolean closed = false;
+
+    public TransitiveClosure(int nodeCount) {
+        this(nodeCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param pool Pool combining rows in parallel, null for sequential execution
+     */
+    public TransitiveClosure(int nodeCount, ForkJoinPool pool) {
+        this.nodeCount = nodeCount;
+        this.words = (nodeCount + Long.SIZE - 1) / Long.SIZE;
+        long size = (long) nodeCount * words;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many nodes for a matrix: " + nodeCount);
+        }
+        this.rows = new long[(int) size];
+        this.pool = pool;
+    }
+
+    /**
+     * Checks if a path with at least one edge leads from i to j.
+     *
+     * @param i From node
+     * @param j To node
+     * @return If j is reachable from i
+     */
+    public boolean reachable(int i, int j) {
+        close();
+        return (rows[i * words + (j >>> 6)] & (1L << j)) != 0;
+    }
+
+    /**
+     * @param i From node
+     * @return Nodes reachable from i
+     */
+    public BitSet reachableFrom(int i) {
+        close();
+        return BitSet.valueOf(Arrays.copyOfRange(rows, i * words, (i + 1) * words));
+    }
+
+    /**
+     * @return Closure in row-major order, bit j % 64 of word i * words + j / 64 is set if j is reachable from i
+     */
+    public long[] closure() {
+        close();
+        return rows.clone();
+    }
+
+    /**
+     * Calculates the closure on first use. For every pivot a, each row with bit a set
+     * receives all nodes reachable from a.
+     */
+    private void close() {
+        if (!closed) {
+            for (int a = 0; a < nodeCount; a++) {
+                if (isEmpty(a)) {
+                    // Pivot reaches nothing, no row changes
+                    continue;
+                }
+                if (pool == null || nodeCount < SEQUENTIAL_THRESHOLD) {
+                    combine(a, 0, nodeCount);
+                } else {
+                    pool.invoke(new CombineTask(a, 0, nodeCount));
+                }
+            }
+            closed = true;
+        }
+    }
+
+    /**
+     * Adds row of pivot a to all rows from rowFrom to rowTo - 1 that reach a.
+     * Row a only changes if a reaches itself, and then by itself, so reading it
+     * while other rows are combined is safe.
+     */
+    private void combine(int a, int rowFrom, int rowTo) {
+        int pivotRow = a * words;
+        int word = a >>> 6;
+        long bit = 1L << a;
+        for (int b = rowFrom; b < rowTo; b++) {
+            int row = b * words;
+            if ((rows[row + word] & bit) != 0 && b != a) {
+                for (int w = 0; w < words; w++) {
+                    rows[row + w] |= rows[pivotRow + w];
+                }
+            }
+        }
+    }
+
+    private boolean isEmpty(int a) {
+        for (int w = a * words; w < (a + 1) * words; w++) {
+            if (rows[w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Task splitting a range of rows until it is small enough.
+     */
+    private class CombineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int pivot;
+        private final int from;
+        private final int to;
+
+        CombineTask(int pivot, int from, int to) {
+            this.pivot = pivot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                combine(pivot, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CombineTask(pivot, from, middle), new CombineTask(pivot, middle, to));
+            }
+        }
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds an edge. Edges with infinite costs do not exist and are skipped,
+     * other costs are not used for reachability.
+     */
+    public void addEdge(int nodeFrom, int nodeTo, double weight) {
+        if (closed) {
+            throw new IllegalStateException("Closure is calculated, edges can not be added after first query");
+        }
+        if (weight != Double.POSITIVE_INFINITY) {
+            rows[nodeFrom * words + (nodeTo >>> 6)] |= 1L << nodeTo;
+        }
+    }
+}
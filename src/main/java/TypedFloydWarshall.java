@@ -0,0 +1,186 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Floyd-Warshall on a matrix of a primitive type other than double, so each pair needs
+ * fewer bytes. Subclasses hold the adjacency matrix and a working copy of the element type
+ * and relax single tiles of the copy, this class runs the blocked schedule and keeps track
+ * of the pivots. Like {@link FloydWarshall}, the adjacency matrix is not modified: further
+ * pivots resume the working copy, fewer pivots or changed edges start again from the matrix.
+ */
+public abstract class TypedFloydWarshall {
+
+    /**
+     * Number of edges
+     */
+    public int edgeCount = 0;
+
+    /**
+     * Number of nodes
+     */
+    final int nodeCount;
+
+    /**
+     * Edge length of the tiles
+     */
+    private final int tileSize;
+
+    /**
+     * Relaxes the working copy with the blocked schedule of FloydWarshall
+     */
+    private final FloydWarshall.BlockedSchedule schedule;
+
+    /**
+     * Number of pivots the working copy has been relaxed with
+     */
+    private int pivots = 0;
+
+    /**
+     * Flag if negative cycle has been found
+     */
+    private boolean negativeCycle = false;
+
+    /**
+     * Flag if the working copy has been started from the current adjacency matrix
+     */
+    private boolean started = false;
+
+    /**
+     * @param nodeCount Number of nodes
+     * @param tileSize Edge length of the tiles
+     * @param pool Pool relaxing independent tiles in parallel, null for sequential execution
+     */
+    TypedFloydWarshall(int nodeCount, int tileSize, ForkJoinPool pool) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        // Fails early if the matrix does not fit into an array
+        FloydWarshall.matrixSize(nodeCount);
+        this.nodeCount = nodeCount;
+        this.tileSize = tileSize;
+        this.schedule = new FloydWarshall.BlockedSchedule(nodeCount, tileSize, pool) {
+            @Override
+            void relaxTile(int pivotFrom, int pivotTo, int rowFrom, int rowTo, int colFrom, int colTo) {
+                TypedFloydWarshall.this.relaxTile(pivotFrom, pivotTo, rowFrom, rowTo, colFrom, colTo);
+            }
+
+            @Override
+            boolean hasNegativeDiagonal() {
+                for (int b = 0; b < nodeCount; b++) {
+                    if (isNegative(b)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns costs of shortest path between i and j, using v0, ..., vk-1 as possible hops.
+     * @param i From node
+     * @param j To node
+     * @param k Nodes v0, ... , vk-1 that can be used for hops
+     * @return Costs of shortest path formatted like FloydWarshall or "Neg.Cycle" if negative cycle detected
+     */
+    public String shortestPath(int i, int j, int k) {
+        if (relax(k)) {
+            if (getNumberOfNodes() > 0) {
+                return String.valueOf(costs(i, j));
+            } else {
+                // No node results in no path
+                return String.valueOf(0D);
+            }
+        } else {
+            // Negative cycle
+            return FloydWarshall.NEGATIVE_CYCLE;
+        }
+    }
+
+    /**
+     * Relaxes the working copy until exactly v0, ..., vk-1 are used as possible hops.
+     *
+     * @param k Nodes v0, ... , vk-1 that can be used for hops
+     * @return If matrix is valid, or if negative cycle has been found
+     */
+    public boolean relax(int k) {
+        int target = Math.min(k, nodeCount);
+        if (!started || target < pivots) {
+            // Pivots can not be removed, start again from the adjacency matrix
+            restart();
+            negativeCycle = !schedule.run(0, target);
+            pivots = target;
+            started = true;
+        } else if (target > pivots && !negativeCycle) {
+            negativeCycle = !schedule.run(pivots, target);
+            pivots = target;
+        }
+        return !negativeCycle;
+    }
+
+    /**
+     * Marks the working copy outdated after an edge of the adjacency matrix changed.
+     */
+    void edgeChanged() {
+        started = false;
+        edgeCount++;
+    }
+
+    /**
+     * @param i From node
+     * @param j To node
+     * @return Costs found by the last relaxation, infinity if j is not reachable
+     */
+    public abstract double costs(int i, int j);
+
+    /**
+     * Sets costs of an edge, converted to the element type.
+     *
+     * @param nodeFrom From node
+     * @param nodeTo To node
+     * @param weight Costs, infinity for a missing edge
+     * @throws IllegalArgumentException if the costs can not be represented
+     */
+    public abstract void addEdge(int nodeFrom, int nodeTo, double weight);
+
+    /**
+     * Copies the adjacency matrix into the working copy.
+     */
+    abstract void restart();
+
+    /**
+     * Adjusts costs of a tile of the working copy using the given pivots as hops.
+     *
+     * @param pivotFrom First pivot
+     * @param pivotTo Pivot after last pivot
+     * @param rowFrom First row of tile
+     * @param rowTo Row after last row of tile
+     * @param colFrom First column of tile
+     * @param colTo Column after last column of tile
+     */
+    abstract void relaxTile(int pivotFrom, int pivotTo, int rowFrom, int rowTo, int colFrom, int colTo);
+
+    /**
+     * @param node Node
+     * @return If node reaches itself with negative costs in the working copy
+     */
+    abstract boolean isNegative(int node);
+
+    public boolean hasNegativeCycle() {
+        return negativeCycle;
+    }
+
+    /**
+     * @return Number of pivots v0, ..., vk-1 used as possible hops
+     */
+    public int getPivots() {
+        return pivots;
+    }
+
+    public int getNumberOfNodes() {
+        return nodeCount;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+}
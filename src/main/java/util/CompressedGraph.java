@@ -0,0 +1,191 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Directed graph in compressed sparse row (CSR) format.
+ * The outgoing edges of node v are stored in the range offsets[v] until offsets[v + 1]
+ * of the parallel target and weight arrays. The graph is immutable, edges are collected
+ * with a {@link Builder} first.
+ */
+public class CompressedGraph {
+
+    /**
+     * Index of first outgoing edge per node, offsets[nodeCount] is the number of edges
+     */
+    private final int[] offsets;
+    /**
+     * Target node per edge
+     */
+    private final int[] targets;
+    /**
+     * Weight per edge, null if graph is unweighted
+     */
+    private final double[] weights;
+
+    private CompressedGraph(int[] offsets, int[] targets, double[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int getNumberOfNodes() {
+        return offsets.length - 1;
+    }
+
+    public int getNumberOfEdges() {
+        return targets.length;
+    }
+
+    public int getNumberOfNeighbours(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * @param node Node
+     * @return Index of first outgoing edge of node
+     */
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * @param node Node
+     * @return Index after last outgoing edge of node
+     */
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    /**
+     * Builds the graph with all edges reversed.
+     *
+     * @return Transposed graph
+     */
+    public CompressedGraph transpose() {
+        int nodeCount = getNumberOfNodes();
+        int edgeCount = getNumberOfEdges();
+
+        // Count incoming edges per node
+        int[] transposedOffsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            transposedOffsets[targets[edge] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            transposedOffsets[i + 1] += transposedOffsets[i];
+        }
+
+        // Stable counting sort by target node
+        int[] cursor = Arrays.copyOf(transposedOffsets, nodeCount);
+        int[] transposedTargets = new int[edgeCount];
+        double[] transposedWeights = weights != null ? new double[edgeCount] : null;
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int position = cursor[targets[edge]]++;
+                transposedTargets[position] = node;
+                if (weights != null) {
+                    transposedWeights[position] = weights[edge];
+                }
+            }
+        }
+
+        return new CompressedGraph(transposedOffsets, transposedTargets, transposedWeights);
+    }
+
+    /**
+     * Collects edges and freezes them into a compressed graph.
+     */
+    public static class Builder {
+        private final int nodeCount;
+        private final boolean weighted;
+        private int edgeCount = 0;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] weights;
+
+        public Builder(int nodeCount, boolean weighted) {
+            this.nodeCount = nodeCount;
+            this.weighted = weighted;
+            if (weighted) {
+                this.weights = new double[16];
+            }
+        }
+
+        public int getNumberOfNodes() {
+            return nodeCount;
+        }
+
+        public int getNumberOfEdges() {
+            return edgeCount;
+        }
+
+        public Builder addEdge(int nodeFrom, int nodeTo) {
+            if (nodeFrom < 0 || nodeFrom >= nodeCount || nodeTo < 0 || nodeTo >= nodeCount) {
+                throw new IndexOutOfBoundsException("Edge " + nodeFrom + "/" + nodeTo + " out of range");
+            }
+            if (edgeCount == sources.length) {
+                // Grow arrays
+                int capacity = sources.length * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                if (weighted) {
+                    weights = Arrays.copyOf(weights, capacity);
+                }
+            }
+            sources[edgeCount] = nodeFrom;
+            targets[edgeCount] = nodeTo;
+            edgeCount++;
+            return this;
+        }
+
+        public Builder addEdge(int nodeFrom, int nodeTo, double weight) {
+            addEdge(nodeFrom, nodeTo);
+            if (weighted) {
+                weights[edgeCount - 1] = weight;
+            }
+            return this;
+        }
+
+        /**
+         * Builds compressed graph. Edges of a node keep their insertion order.
+         *
+         * @return Compressed graph
+         */
+        public CompressedGraph build() {
+            // Count outgoing edges per node
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            // Stable counting sort by source node
+            int[] cursor = Arrays.copyOf(offsets, nodeCount);
+            int[] csrTargets = new int[edgeCount];
+            double[] csrWeights = weighted ? new double[edgeCount] : null;
+            for (int i = 0; i < edgeCount; i++) {
+                int position = cursor[sources[i]]++;
+                csrTargets[position] = targets[i];
+                if (weighted) {
+                    csrWeights[position] = weights[i];
+                }
+            }
+
+            return new CompressedGraph(offsets, csrTargets, csrWeights);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap of node ids with double keys, stored in primitive arrays.
+ * Every node is contained at most once, its key can be decreased in place.
+ * A heap with four children per entry is flatter than a binary heap, which
+ * makes the frequent key decreases of shortest path searches cheaper.
+ */
+public class IndexedDaryHeap {
+
+    /**
+     * Number of children per entry
+     */
+    private static final int ARITY = 4;
+    /**
+     * Position of nodes not contained in the heap
+     */
+    private static final int ABSENT = -1;
+
+    /**
+     * Nodes in heap order
+     */
+    private final int[] heap;
+    /**
+     * Position of every node in the heap, ABSENT if not contained
+     */
+    private final int[] position;
+    /**
+     * Key per node, kept after the node is removed
+     */
+    private final double[] keys;
+    /**
+     * Number of contained nodes
+     */
+    private int size = 0;
+
+    /**
+     * @param nodeCount Number of nodes, ids range from 0 to nodeCount - 1
+     */
+    public IndexedDaryHeap(int nodeCount) {
+        this.heap = new int[nodeCount];
+        this.position = new int[nodeCount];
+        this.keys = new double[nodeCount];
+        Arrays.fill(position, ABSENT);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int node) {
+        return position[node] != ABSENT;
+    }
+
+    /**
+     * @param node Node
+     * @return Current key of node, or last key if node has been removed
+     */
+    public double key(int node) {
+        return keys[node];
+    }
+
+    /**
+     * Inserts a node or decreases its key. Keys of contained nodes are never increased.
+     *
+     * @param node Node
+     * @param key New key
+     * @return If node has been inserted or its key decreased
+     */
+    public boolean push(int node, double key) {
+        int pos = position[node];
+        if (pos == ABSENT) {
+            pos = size++;
+        } else if (key >= keys[node]) {
+            return false;
+        }
+        keys[node] = key;
+        siftUp(node, pos);
+        return true;
+    }
+
+    /**
+     * @return Node with smallest key, without removing it
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Removes the node with smallest key.
+     *
+     * @return Removed node
+     */
+    public int poll() {
+        int min = heap[0];
+        position[min] = ABSENT;
+        size--;
+        if (size > 0) {
+            siftDown(heap[size], 0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes all nodes. Only touches the contained nodes, so the heap can be reused cheaply.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves node up from pos until its parent's key is not larger.
+     */
+    private void siftUp(int node, int pos) {
+        double key = keys[node];
+        while (pos > 0) {
+            int parent = (pos - 1) / ARITY;
+            int other = heap[parent];
+            if (keys[other] <= key) {
+                break;
+            }
+            place(other, pos);
+            pos = parent;
+        }
+        place(node, pos);
+    }
+
+    /**
+     * Moves node down from pos until no child has a smaller key.
+     */
+    private void siftDown(int node, int pos) {
+        double key = keys[node];
+        while (true) {
+            int first = pos * ARITY + 1;
+            if (first >= size) {
+                break;
+            }
+            // Smallest child
+            int child = first;
+            int end = Math.min(first + ARITY, size);
+            for (int i = first + 1; i < end; i++) {
+                if (keys[heap[i]] < keys[heap[child]]) {
+                    child = i;
+                }
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            place(heap[child], pos);
+            pos = child;
+        }
+        place(node, pos);
+    }
+
+    private void place(int node, int pos) {
+        heap[pos] = node;
+        position[node] = pos;
+    }
+}
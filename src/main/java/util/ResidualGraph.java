@@ -0,0 +1,229 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Flow network in compressed sparse row (CSR) format. Every edge is stored as a forward arc
+ * at its source node and a paired reverse arc at its target node, so the residual capacity
+ * in both directions is reached in constant time. The arcs of node v are stored in the range
+ * offsets[v] until offsets[v + 1] of the parallel arrays. Flow is skew symmetric: pushing
+ * flow over an arc removes the same amount from its reverse arc, whose capacity is 0.
+ * The structure is fixed after building, only capacities and flows change.
+ */
+public class ResidualGraph {
+
+    /**
+     * Index of first arc per node, offsets[nodeCount] is the number of arcs
+     */
+    private final int[] offsets;
+    /**
+     * Target node per arc
+     */
+    private final int[] targets;
+    /**
+     * Paired arc in opposite direction per arc
+     */
+    private final int[] reverse;
+    /**
+     * Capacity per arc, 0 for reverse arcs
+     */
+    private final double[] capacities;
+    /**
+     * Flow per arc, negative on reverse arcs
+     */
+    private final double[] flows;
+    /**
+     * Forward arc per edge in insertion order
+     */
+    private final int[] arcs;
+
+    private ResidualGraph(int[] offsets, int[] targets, int[] reverse, double[] capacities, int[] arcs) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.reverse = reverse;
+        this.capacities = capacities;
+        this.flows = new double[targets.length];
+        this.arcs = arcs;
+    }
+
+    public int getNumberOfNodes() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return Number of edges added, each stored as two arcs
+     */
+    public int getNumberOfEdges() {
+        return arcs.length;
+    }
+
+    public int getNumberOfArcs() {
+        return targets.length;
+    }
+
+    /**
+     * @param node Node
+     * @return Index of first arc of node
+     */
+    public int firstArc(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * @param node Node
+     * @return Index after last arc of node
+     */
+    public int endArc(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int arc) {
+        return targets[arc];
+    }
+
+    public int source(int arc) {
+        return targets[reverse[arc]];
+    }
+
+    /**
+     * @param arc Arc
+     * @return Paired arc in opposite direction
+     */
+    public int reverse(int arc) {
+        return reverse[arc];
+    }
+
+    /**
+     * @param edge Edge in insertion order
+     * @return Forward arc of edge
+     */
+    public int arc(int edge) {
+        return arcs[edge];
+    }
+
+    public double capacity(int arc) {
+        return capacities[arc];
+    }
+
+    public double flow(int arc) {
+        return flows[arc];
+    }
+
+    /**
+     * Changes the capacity of an arc, its flow stays unchanged.
+     *
+     * @param arc Arc
+     * @param capacity New capacity
+     */
+    public void setCapacity(int arc, double capacity) {
+        capacities[arc] = capacity;
+    }
+
+    /**
+     * @param arc Arc
+     * @return Amount of flow that can still be pushed over arc
+     */
+    public double residual(int arc) {
+        return capacities[arc] - flows[arc];
+    }
+
+    /**
+     * Pushes flow over an arc and takes it back from its reverse arc.
+     *
+     * @param arc Arc
+     * @param amount Amount of flow, negative to cancel flow
+     */
+    public void push(int arc, double amount) {
+        flows[arc] += amount;
+        flows[reverse[arc]] -= amount;
+    }
+
+    /**
+     * Removes all flow.
+     */
+    public void clearFlow() {
+        Arrays.fill(flows, 0);
+    }
+
+    /**
+     * Collects edges and freezes them into a residual graph.
+     */
+    public static class Builder {
+        private final int nodeCount;
+        private int edgeCount = 0;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] capacities = new double[16];
+
+        public Builder(int nodeCount) {
+            this.nodeCount = nodeCount;
+        }
+
+        public int getNumberOfNodes() {
+            return nodeCount;
+        }
+
+        public int getNumberOfEdges() {
+            return edgeCount;
+        }
+
+        /**
+         * @param nodeFrom From node
+         * @param nodeTo To node
+         * @param capacity Capacity of edge
+         * @return Id of edge, edges are numbered in insertion order
+         */
+        public int addEdge(int nodeFrom, int nodeTo, double capacity) {
+            if (nodeFrom < 0 || nodeFrom >= nodeCount || nodeTo < 0 || nodeTo >= nodeCount) {
+                throw new IndexOutOfBoundsException("Edge " + nodeFrom + "/" + nodeTo + " out of range");
+            }
+            if (edgeCount == sources.length) {
+                // Grow arrays
+                int size = sources.length * 2;
+                sources = Arrays.copyOf(sources, size);
+                targets = Arrays.copyOf(targets, size);
+                capacities = Arrays.copyOf(capacities, size);
+            }
+            sources[edgeCount] = nodeFrom;
+            targets[edgeCount] = nodeTo;
+            capacities[edgeCount] = capacity;
+            return edgeCount++;
+        }
+
+        /**
+         * Builds residual graph. Arcs of a node keep the insertion order of their edges.
+         *
+         * @return Residual graph without flow
+         */
+        public ResidualGraph build() {
+            // Count forward and reverse arcs per node
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[sources[i] + 1]++;
+                offsets[targets[i] + 1]++;
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            // Stable counting sort by tail node
+            int[] cursor = Arrays.copyOf(offsets, nodeCount);
+            int[] arcTargets = new int[2 * edgeCount];
+            int[] arcReverse = new int[2 * edgeCount];
+            double[] arcCapacities = new double[2 * edgeCount];
+            int[] arcs = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                int forward = cursor[sources[i]]++;
+                int backward = cursor[targets[i]]++;
+                arcTargets[forward] = targets[i];
+                arcTargets[backward] = sources[i];
+                arcReverse[forward] = backward;
+                arcReverse[backward] = forward;
+                arcCapacities[forward] = capacities[i];
+                arcs[i] = forward;
+            }
+
+            return new ResidualGraph(offsets, arcTargets, arcReverse, arcCapacities, arcs);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import util.GraphReader;
 import java.util.Random;
 
 import static junit.framework.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 public class CycleDetectorTest {
@@ -189,6 +190,96 @@ public class CycleDetectorTest {
         assertTrue(graph.hasCycle());
     }
 
+    /**
+     * Traversal 4:
+     * Topologische Ordnung eines Graphen ohne Zyklus
+     */
+    @Test public void traversal_4() throws Exception {
+        setupFromFile(4);
+        assertTopologicalOrder(graph.traverse());
+
+        setupFromFile(4);
+        assertTopologicalOrder(graph.traverseKahn());
+    }
+
+    /**
+     * Traversal 7:
+     * Zyklus eines Graphen mit Zyklus und Schleife
+     */
+    @Test public void traversal_7() throws Exception {
+        setupFromFile(7);
+        assertCycle(graph.traverse());
+
+        setupFromFile(7);
+        assertCycle(graph.traverseKahn());
+    }
+
+    /**
+     * Traversal 12:
+     * Zyklus eines nicht zusammenhängenden Graphen
+     */
+    @Test public void traversal_12() throws Exception {
+        setupFromFile(12);
+        assertCycle(graph.traverse());
+
+        setupFromFile(12);
+        assertCycle(graph.traverseKahn());
+    }
+
+    /**
+     * Query 12:
+     * Wiederholte Abfragen ab verschiedenen Startknoten
+     * eines nicht zusammenhängenden Graphen mit Zyklus
+     */
+    @Test public void query_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Check results, queries do not influence each other
+        for (int i = 0; i < 3; i++) {
+            assertTrue(graph.hasCycleFrom(0));
+            assertFalse(graph.hasCycleFrom(1));
+            assertTrue(graph.hasCycleFrom(3));
+            assertFalse(graph.hasCycle(new int[]{1}));
+            assertTrue(graph.hasCycle(new int[]{1, 2}));
+            assertTrue(graph.hasCycle());
+        }
+    }
+
+    private void assertTopologicalOrder(CycleDetector.Traversal traversal) {
+        assertFalse(traversal.hasCycle());
+        int[] order = traversal.topologicalOrder();
+        assertEquals(graph.getNumberOfNodes(), order.length);
+
+        // Every edge points forward in the order
+        int[] position = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int cur = 0; cur < graph.getNumberOfNodes(); cur++) {
+            for (int i = 0; i < graph.getNumberOfNeighbours(cur); i++) {
+                assertTrue(position[cur] < position[graph.getNeighbour(cur, i)]);
+            }
+        }
+    }
+
+    private void assertCycle(CycleDetector.Traversal traversal) {
+        assertTrue(traversal.hasCycle());
+        int[] cycle = traversal.cycle();
+        assertTrue(cycle.length > 0);
+
+        // Every node of the cycle has an edge to its successor
+        for (int i = 0; i < cycle.length; i++) {
+            int cur = cycle[i];
+            int next = cycle[(i + 1) % cycle.length];
+            boolean edgeFound = false;
+            for (int j = 0; j < graph.getNumberOfNeighbours(cur); j++) {
+                edgeFound |= graph.getNeighbour(cur, j) == next;
+            }
+            assertTrue(edgeFound);
+        }
+    }
+
     /**
      * Setup worst case graph for scalability.
      */
@@ -224,6 +315,9 @@ public class CycleDetectorTest {
                 } catch (StackOverflowError error) {
                     System.out.println("StackOverflow at " + i + " nodes!");
                     break outerloop;
+                } catch (OutOfMemoryError error) {
+                    System.out.println("OutOfMemoryError at " + i + " nodes!");
+                    break outerloop;
                 }
 
                 end = System.currentTimeMillis();
@@ -233,4 +327,21 @@ public class CycleDetectorTest {
                     "Number of edges: " + i + " Avg. execution time: " + String.valueOf(total / randomGraphsCount));
         }
     }
+
+    /**
+     * Scalability 2:
+     * Pfad mit einer Million Knoten ohne und mit Zyklus
+     */
+    @Test public void scalability_2() {
+        int nodeCount = 1000000;
+
+        // Path without cycle
+        setupWorstCase(nodeCount);
+        assertFalse(graph.hasCycle());
+
+        // Path closed to a cycle
+        setupWorstCase(nodeCount);
+        graph.addEdge(nodeCount - 1, 0, 1);
+        assertTrue(graph.hasCycle());
+    }
 }
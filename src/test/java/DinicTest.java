@@ -0,0 +1,278 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DinicTest {
+    private GraphReader graphReader;
+    private Dinic graph;
+
+    // Max flow params
+    int s;
+    int t;
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("fordfulkerson", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new Dinic(nodeCount);
+
+        s = Integer.parseInt(graphReader.next());
+        t = Integer.parseInt(graphReader.next());
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (value > 0) {
+                    graph.addEdge(i, j, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 3:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 5
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertEquals(8.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 1
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        // Check result
+        assertEquals(4.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 5:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 0
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 6:
+     * Nicht zusammenhängender Graph
+     * unverbundene Knoten
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 7:
+     * Nicht zusammenhängender Graph
+     * verbundene Knoten
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertEquals(2.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 8:
+     * Graph zur Verifikation von
+     * Edmonds-Karp
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+        // Check result
+        assertEquals(20000.0, graph.maxFlow(s, t), 0.01);
+        // Both paths have length 2 and are saturated in one phase
+        assertEquals(1, graph.getNumberOfPhases());
+    }
+
+    /**
+     * Random 1:
+     * Zufällige Netzwerke, verglichen mit Edmonds-Karp auf der Kapazitätsmatrix
+     */
+    @Test public void random_1() {
+        Random random = new Random(3);
+
+        for (int round = 0; round < 50; round++) {
+            int nodeCount = 2 + random.nextInt(30);
+            double[][] capacities = new double[nodeCount][nodeCount];
+            graph = new Dinic(nodeCount);
+            int[] edges = new int[3 * nodeCount];
+            int[][] ends = new int[edges.length][];
+            for (int edge = 0; edge < edges.length; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                int capacity = random.nextInt(20);
+                capacities[a][b] += capacity;
+                edges[edge] = graph.addEdge(a, b, capacity);
+                ends[edge] = new int[]{a, b, capacity};
+            }
+
+            double expected = textbook(capacities, 0, nodeCount - 1);
+            assertEquals(expected, graph.maxFlow(0, nodeCount - 1), 0.0);
+
+            // Flow is within capacities and conserved
+            double[] balance = new double[nodeCount];
+            for (int edge = 0; edge < edges.length; edge++) {
+                double flow = graph.flow(edges[edge]);
+                assertTrue(flow >= 0 && flow <= ends[edge][2]);
+                balance[ends[edge][0]] -= flow;
+                balance[ends[edge][1]] += flow;
+            }
+            for (int node = 1; node < nodeCount - 1; node++) {
+                assertEquals(0.0, balance[node], 0.0);
+            }
+            assertEquals(expected, balance[nodeCount - 1], 0.0);
+        }
+    }
+
+    /**
+     * Unit 1:
+     * Bipartites Matching mit Einheitskapazitäten braucht höchstens O(sqrt(n)) Phasen
+     */
+    @Test public void unit_1() {
+        int side = 2000;
+        int nodeCount = 2 * side + 2;
+        int s = 2 * side;
+        int t = s + 1;
+        Random random = new Random(9);
+
+        graph = new Dinic(nodeCount);
+        for (int a = 0; a < side; a++) {
+            graph.addEdge(s, a, 1);
+            graph.addEdge(side + a, t, 1);
+            // Perfect matching a -> a plus random edges
+            graph.addEdge(a, side + a, 1);
+            for (int edge = 0; edge < 3; edge++) {
+                graph.addEdge(a, side + random.nextInt(side), 1);
+            }
+        }
+
+        assertEquals(side, graph.maxFlow(s, t), 0.0);
+        assertTrue(graph.getNumberOfPhases() <= 2 * Math.sqrt(nodeCount) + 2);
+    }
+
+    /**
+     * Reference implementation with Edmonds-Karp on the capacity matrix.
+     */
+    private double textbook(double[][] capacities, int s, int t) {
+        int nodeCount = capacities.length;
+        double[][] residual = new double[nodeCount][];
+        for (int a = 0; a < nodeCount; a++) {
+            residual[a] = capacities[a].clone();
+        }
+
+        double total = 0;
+        int[] parent = new int[nodeCount];
+        while (true) {
+            Arrays.fill(parent, -1);
+            parent[s] = s;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(s);
+            while (!queue.isEmpty() && parent[t] == -1) {
+                int cur = queue.poll();
+                for (int other = 0; other < nodeCount; other++) {
+                    if (parent[other] == -1 && residual[cur][other] > 0) {
+                        parent[other] = cur;
+                        queue.add(other);
+                    }
+                }
+            }
+            if (parent[t] == -1) {
+                return total;
+            }
+
+            double min = Double.MAX_VALUE;
+            for (int cur = t; cur != s; cur = parent[cur]) {
+                min = Math.min(min, residual[parent[cur]][cur]);
+            }
+            for (int cur = t; cur != s; cur = parent[cur]) {
+                residual[parent[cur]][cur] -= min;
+                residual[cur][parent[cur]] += min;
+            }
+            total += min;
+        }
+    }
+
+    /**
+     * Scalability 1:
+     * Dünnes Netzwerk mit 100'000 Knoten
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 100000;
+        Random random = new Random(4);
+
+        graph = new Dinic(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int edge = 0; edge < 5; edge++) {
+                graph.addEdge(a, random.nextInt(nodeCount), 1 + random.nextInt(1000));
+            }
+        }
+
+        double start = System.currentTimeMillis();
+        double flow = graph.maxFlow(0, nodeCount - 1);
+        double total = System.currentTimeMillis() - start;
+
+        assertTrue(flow > 0);
+        System.out.println("Number of nodes: " + nodeCount + " Execution time: " + String.valueOf(total)
+                + " Phases: " + graph.getNumberOfPhases());
+    }
+}
@@ -1,7 +1,9 @@
 import org.junit.Test;
 import util.GraphReader;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.*;
 
@@ -214,6 +216,430 @@ public class FloydWarshallTest {
         assertEquals("Infinity", graph.shortestPath(i, j, k ));
     }
 
+    /**
+     * Path 8:
+     * Pfad in gerichtetem, gewichtetem Graphen
+     * i = 2, j = 1, k = 4
+     */
+    @Test public void path_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Check result
+        assertPath(7.0);
+    }
+
+    /**
+     * Path 12:
+     * Pfad in ungerichtetem, gewichtetem Graphen
+     */
+    @Test public void path_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Check result
+        assertPath(8.0);
+    }
+
+    /**
+     * Path 13:
+     * Kein Pfad in nicht zusammenhängendem Graphen
+     */
+    @Test public void path_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+        graph.setPathTracking(true);
+        graph.shortestPath(i, j, k);
+
+        // Check result
+        assertEquals(0, graph.path(i, j).length);
+    }
+
+    /**
+     * Checks that the path from i to j starts and ends correctly
+     * and has the expected costs in the input graph.
+     */
+    private void assertPath(double expectedCosts) {
+        int nodeCount = graph.getNumberOfNodes();
+        double[] weights = graph.matrix.clone();
+        graph.setPathTracking(true);
+        assertEquals(String.valueOf(expectedCosts), graph.shortestPath(i, j, k));
+
+        int[] path = graph.path(i, j);
+        assertEquals(i, path[0]);
+        assertEquals(j, path[path.length - 1]);
+        double costs = 0;
+        for (int hop = 1; hop < path.length; hop++) {
+            costs += weights[path[hop - 1] * nodeCount + path[hop]];
+        }
+        assertEquals(expectedCosts, costs, 0.0);
+    }
+
+    /**
+     * Blocked 1:
+     * Zufälliger Graph mit verschiedenen Kachelgrössen
+     */
+    @Test public void blocked_1() {
+        int nodeCount = 150;
+        Random random = new Random(42);
+        double[][] weights = randomWeights(nodeCount, random);
+
+        for (int k : new int[]{0, 1, 70, 128, nodeCount}) {
+            double[][] expected = textbook(weights, k);
+            for (int tileSize : new int[]{1, 7, 64, 200}) {
+                graph = new FloydWarshall(nodeCount, tileSize);
+                for (int a = 0; a < nodeCount; a++) {
+                    for (int b = 0; b < nodeCount; b++) {
+                        graph.addEdge(a, b, weights[a][b]);
+                    }
+                }
+
+                DistanceMatrix distances = graph.distances(k);
+                for (int a = 0; a < nodeCount; a++) {
+                    for (int b = 0; b < nodeCount; b++) {
+                        assertEquals(expected[a][b], distances.distance(a, b), 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parallel 1:
+     * Zufälliger Graph, parallel berechnet
+     */
+    @Test public void parallel_1() {
+        int nodeCount = 150;
+        Random random = new Random(7);
+        double[][] weights = randomWeights(nodeCount, random);
+        double[][] expected = textbook(weights, nodeCount);
+
+        graph = new FloydWarshall(nodeCount, 16, ForkJoinPool.commonPool());
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                graph.addEdge(a, b, weights[a][b]);
+            }
+        }
+
+        DistanceMatrix distances = graph.distances(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                assertEquals(expected[a][b], distances.distance(a, b), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Resume 1:
+     * Zufälliger Graph, Berechnung schrittweise mit mehr Zwischenknoten fortgesetzt
+     */
+    @Test public void resume_1() {
+        int nodeCount = 150;
+        Random random = new Random(11);
+        double[][] weights = randomWeights(nodeCount, random);
+
+        graph = new FloydWarshall(nodeCount, 16);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                graph.addEdge(a, b, weights[a][b]);
+            }
+        }
+        double[] input = graph.matrix.clone();
+
+        DistanceMatrix previous = null;
+        for (int k : new int[]{0, 5, 5, 40, 41, 100, nodeCount}) {
+            double[][] expected = textbook(weights, k);
+            DistanceMatrix distances = graph.distances(k);
+            assertEquals(k, distances.getPivots());
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    assertEquals(expected[a][b], distances.distance(a, b), 0.0);
+                }
+            }
+            if (previous != null && previous.getPivots() < k) {
+                // Earlier result is not modified by resuming
+                double[][] previousExpected = textbook(weights, previous.getPivots());
+                assertEquals(previousExpected[0][nodeCount - 1], previous.distance(0, nodeCount - 1), 0.0);
+            }
+            previous = distances;
+        }
+
+        // Input is not modified, fewer pivots are calculated again
+        assertTrue(Arrays.equals(input, graph.matrix));
+        assertEquals(textbook(weights, 3)[1][2], graph.distances(3).distance(1, 2), 0.0);
+    }
+
+    /**
+     * Incremental 1:
+     * Zufälliger Graph, Kanten nach der Berechnung eingefügt und verbilligt
+     */
+    @Test public void incremental_1() {
+        int nodeCount = 120;
+        Random random = new Random(23);
+        double[][] weights = randomWeights(nodeCount, random);
+
+        graph = new FloydWarshall(nodeCount, 16);
+        graph.setPathTracking(true);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                graph.addEdge(a, b, weights[a][b]);
+            }
+        }
+        DistanceMatrix first = graph.distances(nodeCount);
+
+        for (int update = 0; update < 20; update++) {
+            int a = random.nextInt(nodeCount);
+            int b = random.nextInt(nodeCount);
+            weights[a][b] = Math.min(weights[a][b], random.nextInt(10));
+            graph.addEdge(a, b, weights[a][b]);
+
+            double[][] expected = textbook(weights, nodeCount);
+            DistanceMatrix distances = graph.distances(nodeCount);
+            for (int c = 0; c < nodeCount; c++) {
+                for (int d = 0; d < nodeCount; d++) {
+                    assertEquals(expected[c][d], distances.distance(c, d), 0.0);
+                }
+            }
+            int[] path = distances.path(a, b);
+            assertEquals(a, path[0]);
+            assertEquals(b, path[path.length - 1]);
+        }
+
+        // Earlier result is not modified
+        assertEquals(textbook(randomWeights(nodeCount, new Random(23)), nodeCount)[5][7], first.distance(5, 7), 0.0);
+    }
+
+    /**
+     * Incremental 2:
+     * Eingefügte Kante schliesst negativen Zyklus
+     */
+    @Test public void incremental_2() throws Exception {
+        setupFromFile(8);
+        assertEquals("7.0", graph.shortestPath(i, j, k));
+
+        DistanceMatrix distances = graph.distances(k);
+        // Path 2 -> 1 costs 7, an edge 1 -> 2 with costs -8 closes a negative cycle
+        assertTrue(distances.withEdge(1, 2, -8).hasNegativeCycle());
+        assertFalse(distances.withEdge(1, 2, -7).hasNegativeCycle());
+
+        graph.addEdge(1, 2, -8);
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(i, j, k));
+    }
+
+    /**
+     * Incremental 3:
+     * Eingefügte negative Schleife ohne gesetzte Diagonale
+     */
+    @Test public void incremental_3() {
+        graph = new FloydWarshall(2);
+        graph.addEdge(0, 0, Double.POSITIVE_INFINITY);
+        graph.addEdge(0, 1, 3);
+        graph.addEdge(1, 0, Double.POSITIVE_INFINITY);
+        graph.addEdge(1, 1, Double.POSITIVE_INFINITY);
+
+        DistanceMatrix distances = graph.distances(2);
+        assertFalse(distances.hasNegativeCycle());
+        assertTrue(distances.withEdge(0, 0, -1).hasNegativeCycle());
+        assertFalse(distances.withEdge(0, 0, 1).hasNegativeCycle());
+    }
+
+    /**
+     * Incremental 4:
+     * Eingefügte Kante ohne gesetzte Diagonale, verglichen mit neuer Berechnung
+     */
+    @Test public void incremental_4() {
+        for (boolean paths : new boolean[]{false, true}) {
+            graph = new FloydWarshall(3);
+            graph.setPathTracking(paths);
+            FloydWarshall reference = new FloydWarshall(3);
+            for (int a = 0; a < 3; a++) {
+                for (int b = 0; b < 3; b++) {
+                    graph.addEdge(a, b, Double.POSITIVE_INFINITY);
+                    reference.addEdge(a, b, Double.POSITIVE_INFINITY);
+                }
+            }
+            graph.addEdge(0, 1, 3);
+            reference.addEdge(0, 1, 3);
+            graph.addEdge(2, 1, 1);
+            reference.addEdge(2, 1, 1);
+            graph.distances(3);
+
+            // Edge back to 0 closes cycle 0 -> 1 -> 0 and reaches 0 from 2
+            graph.addEdge(1, 0, 5);
+            reference.addEdge(1, 0, 5);
+            DistanceMatrix distances = graph.distances(3);
+            DistanceMatrix expected = reference.distances(3);
+            assertEquals(5.0, distances.distance(1, 0), 0.0);
+            assertEquals(8.0, distances.distance(0, 0), 0.0);
+            for (int a = 0; a < 3; a++) {
+                for (int b = 0; b < 3; b++) {
+                    assertEquals(expected.distance(a, b), distances.distance(a, b), 0.0);
+                }
+            }
+            if (paths) {
+                assertArrayEquals(new int[]{2, 1, 0}, distances.path(2, 0));
+            }
+        }
+    }
+
+    /**
+     * Hops 4:
+     * Gerichteter, gewichteter Graph mit beschränkter Anzahl Kanten pro Pfad
+     */
+    @Test public void hops_4() throws Exception {
+        setupFromFile(4);
+
+        // Path 2 -> 0 -> 3 -> 1 costs 7, path 2 -> 0 -> 1 costs 12
+        assertEquals("Infinity", graph.distancesWithinHops(1).shortestPath(i, j));
+        assertEquals("12.0", graph.distancesWithinHops(2).shortestPath(i, j));
+        assertEquals("7.0", graph.distancesWithinHops(3).shortestPath(i, j));
+        assertEquals("7.0", graph.distancesWithinHops(1000).shortestPath(i, j));
+        assertEquals("0.0", graph.distancesWithinHops(0).shortestPath(i, i));
+        assertEquals("Infinity", graph.distancesWithinHops(0).shortestPath(i, j));
+    }
+
+    /**
+     * Hops 10:
+     * Negativer Zyklus mit 3 Kanten wird erst ab 3 Kanten pro Pfad erkannt
+     */
+    @Test public void hops_10() throws Exception {
+        setupFromFile(10);
+
+        HopLimitedDistances distances = graph.distancesWithinHops(2);
+        assertFalse(distances.hasNegativeCycle());
+        assertEquals(5.0, distances.distance(2, 3), 0.0);
+
+        distances = graph.distancesWithinHops(3);
+        assertTrue(distances.hasNegativeCycle());
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, distances.shortestPath(i, j));
+        assertEquals(-4.0, distances.distance(2, 2), 0.0);
+    }
+
+    /**
+     * Hops 1:
+     * Zufälliger Graph mit negativen Kanten, verschiedene Kachelgrössen, parallel berechnet
+     */
+    @Test public void hops_1() {
+        int nodeCount = 70;
+        Random random = new Random(5);
+        double[][] weights = randomWeights(nodeCount, random);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                if (a != b && weights[a][b] != Double.POSITIVE_INFINITY) {
+                    // Negative cycles are likely
+                    weights[a][b] -= 20;
+                }
+            }
+        }
+
+        for (int tileSize : new int[]{1, 16, 64}) {
+            for (ForkJoinPool pool : new ForkJoinPool[]{null, ForkJoinPool.commonPool()}) {
+                graph = new FloydWarshall(nodeCount, tileSize, pool);
+                for (int a = 0; a < nodeCount; a++) {
+                    for (int b = 0; b < nodeCount; b++) {
+                        graph.addEdge(a, b, weights[a][b]);
+                    }
+                }
+
+                for (int hops : new int[]{0, 1, 2, 5, 13}) {
+                    double[][] expected = withinHops(weights, hops);
+                    HopLimitedDistances distances = graph.distancesWithinHops(hops);
+                    for (int a = 0; a < nodeCount; a++) {
+                        for (int b = 0; b < nodeCount; b++) {
+                            assertEquals(expected[a][b], distances.distance(a, b), 0.0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reference implementation extending all paths by one edge per round.
+     */
+    private double[][] withinHops(double[][] weights, int hops) {
+        int nodeCount = weights.length;
+        double[][] result = new double[nodeCount][nodeCount];
+        for (int a = 0; a < nodeCount; a++) {
+            Arrays.fill(result[a], Double.POSITIVE_INFINITY);
+            result[a][a] = 0;
+        }
+        for (int round = 0; round < hops; round++) {
+            double[][] next = new double[nodeCount][];
+            for (int a = 0; a < nodeCount; a++) {
+                next[a] = result[a].clone();
+                for (int b = 0; b < nodeCount; b++) {
+                    for (int c = 0; c < nodeCount; c++) {
+                        next[a][c] = Math.min(next[a][c], result[a][b] + weights[b][c]);
+                    }
+                }
+            }
+            result = next;
+        }
+        return result;
+    }
+
+    /**
+     * Size 1:
+     * Matrix mit mehr Einträgen als ein Array fassen kann
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void size_1() {
+        new FloydWarshall(46341);
+    }
+
+    /**
+     * Loop 1:
+     * Schleife mit negativen Kosten ist auch ohne Zwischenknoten ein negativer Zyklus
+     */
+    @Test public void loop_1() {
+        graph = new FloydWarshall(2);
+        graph.addEdge(0, 1, 3);
+        graph.addEdge(1, 0, Double.POSITIVE_INFINITY);
+        graph.addEdge(1, 1, -1);
+
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(0, 1, 0));
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(0, 1, 2));
+    }
+
+    /**
+     * Random graph with non negative weights, about half of the edges missing.
+     */
+    private double[][] randomWeights(int nodeCount, Random random) {
+        double[][] weights = new double[nodeCount][nodeCount];
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                if (a == b) {
+                    weights[a][b] = 0;
+                } else if (random.nextBoolean()) {
+                    weights[a][b] = Double.POSITIVE_INFINITY;
+                } else {
+                    weights[a][b] = random.nextInt(100);
+                }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Reference implementation with the textbook triple loop.
+     */
+    private double[][] textbook(double[][] weights, int k) {
+        int nodeCount = weights.length;
+        double[][] result = new double[nodeCount][];
+        for (int a = 0; a < nodeCount; a++) {
+            result[a] = weights[a].clone();
+        }
+        for (int a = 0; a < k; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                for (int c = 0; c < nodeCount; c++) {
+                    result[b][c] = Math.min(result[b][c], result[b][a] + result[a][c]);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Setup worst case graph for scalability.
      */
@@ -261,4 +687,40 @@ public class FloydWarshallTest {
                     "Number of nodes: " + i + " Avg. execution time: " + String.valueOf(total / randomGraphsCount));
         }
     }
+
+    /**
+     * Scalability 2:
+     * Vergleich des Kachel-Kernels mit der Dreifachschleife
+     */
+    @Test public void scalability_2() {
+        Random random = new Random(3);
+
+        for (int nodeCount : new int[]{250, 500, 1000}) {
+            double[][] weights = randomWeights(nodeCount, random);
+
+            // Warm up and measure textbook loop
+            textbook(weights, nodeCount);
+            double start = System.currentTimeMillis();
+            double[][] expected = textbook(weights, nodeCount);
+            double textbookTime = System.currentTimeMillis() - start;
+
+            // Warm up and measure tiled kernel
+            double tiledTime = 0;
+            for (int run = 0; run < 2; run++) {
+                graph = new FloydWarshall(nodeCount);
+                for (int a = 0; a < nodeCount; a++) {
+                    for (int b = 0; b < nodeCount; b++) {
+                        graph.addEdge(a, b, weights[a][b]);
+                    }
+                }
+                start = System.currentTimeMillis();
+                graph.shortestPath(0, 0, nodeCount);
+                tiledTime = System.currentTimeMillis() - start;
+            }
+            assertEquals(expected[0][nodeCount - 1], graph.distances(nodeCount).distance(0, nodeCount - 1), 0.0);
+
+            System.out.println("Number of nodes: " + nodeCount + " Textbook: " + String.valueOf(textbookTime)
+                    + " Tiled: " + String.valueOf(tiledTime));
+        }
+    }
 }
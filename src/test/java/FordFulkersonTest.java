@@ -4,6 +4,7 @@ import util.GraphReader;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class FordFulkersonTest {
     private GraphReader graphReader;
@@ -145,6 +146,90 @@ public class FordFulkersonTest {
         assertEquals(2, graph.numberOfUpdates(s, t));
     }
 
+    /**
+     * Updates 8:
+     * Anzahl Iterationen beginnt auch nach einer Berechnung beim leeren Fluss
+     */
+    @Test public void updates_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+        assertEquals(20000.0, graph.maxFlow(s, t), 0.01);
+
+        // Check number of iterations without reset
+        assertEquals(2, graph.numberOfUpdates(s, t));
+        assertEquals(20000.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Random 1:
+     * Zufällige Netzwerke, bei denen Fluss über Rückwärtskanten umgeleitet werden muss
+     */
+    @Test public void random_1() {
+        Random random = new Random(6);
+
+        for (int round = 0; round < 50; round++) {
+            int nodeCount = 2 + random.nextInt(30);
+            graph = new FordFulkerson(nodeCount);
+            Dinic reference = new Dinic(nodeCount);
+            for (int edge = 0; edge < 3 * nodeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                int capacity = random.nextInt(20);
+                graph.addEdge(a, b, capacity);
+                reference.addEdge(a, b, capacity);
+            }
+
+            assertEquals(reference.maxFlow(0, nodeCount - 1), graph.maxFlow(0, nodeCount - 1), 0.0);
+        }
+    }
+
+    /**
+     * Warm 1:
+     * Kapazitäten eines gelösten Netzwerks ändern und vom bestehenden Fluss aus weiterrechnen
+     */
+    @Test public void warm_1() {
+        Random random = new Random(8);
+
+        for (int round = 0; round < 20; round++) {
+            int nodeCount = 2 + random.nextInt(30);
+            int edgeCount = 3 * nodeCount;
+            int[][] edges = new int[edgeCount][];
+            graph = new FordFulkerson(nodeCount);
+            for (int edge = 0; edge < edgeCount; edge++) {
+                edges[edge] = new int[]{random.nextInt(nodeCount), random.nextInt(nodeCount), random.nextInt(20)};
+                assertEquals(edge, graph.addEdge(edges[edge][0], edges[edge][1], edges[edge][2]));
+            }
+            int t = nodeCount - 1;
+            graph.maxFlow(0, t);
+
+            for (int change = 0; change < 30; change++) {
+                int edge = random.nextInt(edgeCount);
+                edges[edge][2] = random.nextInt(20);
+                graph.changeCapacity(edge, edges[edge][2]);
+
+                Dinic reference = new Dinic(nodeCount);
+                for (int[] e : edges) {
+                    reference.addEdge(e[0], e[1], e[2]);
+                }
+                double expected = reference.maxFlow(0, t);
+                assertEquals(expected, graph.maxFlow(0, t), 0.0);
+
+                // Flow is within capacities and conserved
+                double[] balance = new double[nodeCount];
+                for (int e = 0; e < edgeCount; e++) {
+                    double flow = graph.flow(e);
+                    assertTrue(flow >= 0 && flow <= edges[e][2]);
+                    balance[edges[e][0]] -= flow;
+                    balance[edges[e][1]] += flow;
+                }
+                for (int node = 1; node < t; node++) {
+                    assertEquals(0.0, balance[node], 0.0);
+                }
+                assertEquals(expected, balance[t], 0.0);
+            }
+        }
+    }
+
     /**
      * Setup worst case graph for scalability.
      */
@@ -0,0 +1,233 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalCycleDetectorTest {
+    private GraphReader graphReader;
+    private IncrementalCycleDetector graph;
+
+    // Flag if an inserted edge has been rejected
+    boolean rejected;
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("cycledetection", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new IncrementalCycleDetector(nodeCount);
+        rejected = false;
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (value != 0)
+                    rejected |= graph.addEdge(i, j, value);
+            }
+        }
+
+        // Accepted edges are always consistent with the order
+        assertTopologicalOrder();
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertFalse(rejected);
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        // Check result
+        assertFalse(rejected);
+    }
+
+    /**
+     * Testcase 3:
+     * Graph mit 1 Knoten und Schleife
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 4:
+     * Gewichteter, gerichteter Graph ohne Zyklus
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        // Check result
+        assertFalse(rejected);
+    }
+
+    /**
+     * Testcase 5:
+     * Gewichteter, gerichteter Graph mit Zyklus
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 6:
+     * Gewichteter, gerichteter Graph ohne Zyklus mit Schleife
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 7:
+     * Gewichteter, gerichteter Graph mit Zyklus und Schleife
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 8:
+     * Gewichteter, gerichteter Graph mit trivialem Zyklus
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 9:
+     * Negativ gewichteter, gerichteter Graph mit Zyklus
+     */
+    @Test public void testcase_9() throws Exception {
+        // Setup graph
+        setupFromFile(9);
+
+        // Check result
+        assertFalse(rejected);
+    }
+
+    /**
+     * Testcase 10:
+     * Negativ gewichteter, gerichteter Graph mit Zyklus
+     */
+    @Test public void testcase_10() throws Exception {
+        // Setup graph
+        setupFromFile(10);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 11:
+     * Graph mit gemeinsamen Target aber ohne Zyklus
+     */
+    @Test public void testcase_11() throws Exception {
+        // Setup graph
+        setupFromFile(11);
+
+        // Check result
+        assertFalse(rejected);
+    }
+
+    /**
+     * Testcase 12:
+     * Nicht zusammenhängender Graph mit Zyklus
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    /**
+     * Testcase 13:
+     * Graph mit parallelen Kanten
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        // Check result
+        assertTrue(rejected);
+    }
+
+    private void assertTopologicalOrder() {
+        int[] order = graph.topologicalOrder();
+        assertEquals(graph.getNumberOfNodes(), order.length);
+
+        int[] position = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int cur = 0; cur < graph.getNumberOfNodes(); cur++) {
+            for (int i = 0; i < graph.getNumberOfNeighbours(cur); i++) {
+                assertTrue(position[cur] < position[graph.getNeighbour(cur, i)]);
+            }
+        }
+    }
+
+    /**
+     * Scalability 1:
+     * Pfad, dessen Kanten entgegen der initialen Ordnung eingefügt werden
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 10000;
+        graph = new IncrementalCycleDetector(nodeCount);
+
+        double start = System.currentTimeMillis();
+        for (int i = 0; i < nodeCount - 1; i++) {
+            // Every edge points against the current order
+            assertFalse(graph.addEdge(i + 1, i, 1));
+        }
+        // Closing edge is rejected
+        assertTrue(graph.addEdge(0, nodeCount - 1, 1));
+        double end = System.currentTimeMillis();
+
+        assertTopologicalOrder();
+        System.out.println(
+                "Number of nodes: " + nodeCount + " Execution time: " + String.valueOf(end - start));
+    }
+}
@@ -0,0 +1,297 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class JohnsonTest {
+    private GraphReader graphReader;
+    private Johnson graph;
+    private FloydWarshall reference;
+
+    /**
+     * Setup for edge cases from input file, hop restriction of the input is ignored.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("floydwarshall", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new Johnson(nodeCount);
+        reference = new FloydWarshall(nodeCount);
+
+        // From node, to node and hops are not used
+        graphReader.next();
+        graphReader.next();
+        graphReader.next();
+
+        // Setup graph
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (a == b) {
+                    // Set diagonal elements to 0
+                    reference.addEdge(a, b, 0);
+                } else if (value == 0) {
+                    // Set unknown values to infinity
+                    reference.addEdge(a, b, Double.POSITIVE_INFINITY);
+                } else {
+                    graph.addEdge(a, b, value);
+                    reference.addEdge(a, b, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks all pairs against Floyd-Warshall using all nodes as hops.
+     */
+    private void assertSameAsReference() {
+        int nodeCount = graph.getNumberOfNodes();
+        DistanceMatrix expected = reference.distances(nodeCount);
+        DistanceMatrix actual = graph.distances();
+
+        assertEquals(expected.hasNegativeCycle(), actual.hasNegativeCycle());
+        if (!expected.hasNegativeCycle()) {
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    assertEquals(expected.distance(a, b), actual.distance(a, b), 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        assertFalse(graph.distances().hasNegativeCycle());
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        assertEquals("0.0", graph.shortestPath(0, 0));
+    }
+
+    /**
+     * Testcase 3:
+     * Graph mit 1 Knoten und Schleife
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        assertEquals("0.0", graph.shortestPath(0, 0));
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        assertEquals("7.0", graph.shortestPath(2, 1));
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 10:
+     * Gerichteter, gewichteter Graph mit negativem Zyklus
+     */
+    @Test public void testcase_10() throws Exception {
+        // Setup graph
+        setupFromFile(10);
+
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(0, 3));
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 11:
+     * Gerichteter, gewichteter Graph mit negativer Kante
+     */
+    @Test public void testcase_11() throws Exception {
+        // Setup graph
+        setupFromFile(11);
+
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 12:
+     * Ungerichteter, gewichteter Graph
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        assertEquals("8.0", graph.shortestPath(6, 8));
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 13:
+     * Nicht zusammenhängender Graph
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        assertEquals("Infinity", graph.shortestPath(0, 5));
+        assertSameAsReference();
+    }
+
+    /**
+     * Path 12:
+     * Pfad im ungerichteten Graph
+     */
+    @Test public void path_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+        graph.setPathTracking(true);
+
+        int[] path = graph.distances().path(6, 8);
+        assertEquals(6, path[0]);
+        assertEquals(8, path[path.length - 1]);
+        double costs = 0;
+        for (int hop = 1; hop < path.length; hop++) {
+            costs += reference.matrix[path[hop - 1] * graph.getNumberOfNodes() + path[hop]];
+        }
+        assertEquals(8.0, costs, 0.0);
+    }
+
+    /**
+     * Random 1:
+     * Dünner Graph mit negativen Kanten ohne negativen Zyklus, parallel und sequentiell berechnet
+     */
+    @Test public void random_1() {
+        int nodeCount = 300;
+        Random random = new Random(5);
+
+        // Costs c + p[b] - p[a] with c >= 0 sum up to c along every cycle
+        int[] potential = new int[nodeCount];
+        for (int a = 0; a < nodeCount; a++) {
+            potential[a] = random.nextInt(50);
+        }
+
+        for (ForkJoinPool pool : new ForkJoinPool[]{null, ForkJoinPool.commonPool()}) {
+            random = new Random(6);
+            graph = new Johnson(nodeCount, pool);
+            reference = new FloydWarshall(nodeCount);
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    reference.addEdge(a, b, a == b ? 0 : Double.POSITIVE_INFINITY);
+                }
+            }
+            for (int edge = 0; edge < 3 * nodeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                if (a != b && reference.matrix[a * nodeCount + b] == Double.POSITIVE_INFINITY) {
+                    double weight = random.nextInt(20) + potential[b] - potential[a];
+                    graph.addEdge(a, b, weight);
+                    reference.addEdge(a, b, weight);
+                }
+            }
+
+            assertSameAsReference();
+        }
+    }
+
+    /**
+     * Planner 1:
+     * Dünne Graphen werden mit Johnson, dichte mit Floyd-Warshall berechnet
+     */
+    @Test public void planner_1() {
+        assertTrue(Johnson.isCheaper(10000, 30000));
+        assertFalse(Johnson.isCheaper(100, 100 * 99));
+        assertFalse(Johnson.isCheaper(1, 0));
+
+        // Floyd-Warshall on a sparse graph returns the same costs
+        int nodeCount = 200;
+        Random random = new Random(9);
+        FloydWarshall floydWarshall = new FloydWarshall(nodeCount);
+        double[][] weights = new double[nodeCount][nodeCount];
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                weights[a][b] = a == b ? 0 : Double.POSITIVE_INFINITY;
+            }
+            weights[a][(a + 1) % nodeCount] = random.nextInt(10);
+            weights[a][random.nextInt(nodeCount)] = random.nextInt(10);
+            weights[a][a] = 0;
+        }
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                floydWarshall.addEdge(a, b, weights[a][b]);
+            }
+        }
+        assertEquals(String.valueOf(textbook(weights)[3][1]), floydWarshall.shortestPath(3, 1, nodeCount));
+    }
+
+    /**
+     * Reference implementation with the textbook triple loop.
+     */
+    private double[][] textbook(double[][] weights) {
+        int nodeCount = weights.length;
+        double[][] result = new double[nodeCount][];
+        for (int a = 0; a < nodeCount; a++) {
+            result[a] = weights[a].clone();
+        }
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                for (int c = 0; c < nodeCount; c++) {
+                    result[b][c] = Math.min(result[b][c], result[b][a] + result[a][c]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Size 1:
+     * Matrix mit mehr Einträgen als ein Array fassen kann
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void size_1() {
+        new Johnson(46341).distances();
+    }
+
+    /**
+     * Scalability 1:
+     * Dünner Graph mit vielen Knoten
+     */
+    @Test public void scalability_1() {
+        Random random = new Random(1);
+
+        for (int nodeCount : new int[]{500, 1000, 2000}) {
+            graph = new Johnson(nodeCount);
+            for (int a = 0; a < nodeCount; a++) {
+                for (int edge = 0; edge < 3; edge++) {
+                    graph.addEdge(a, random.nextInt(nodeCount), random.nextInt(100));
+                }
+            }
+
+            double start = System.currentTimeMillis();
+            graph.distances();
+            double total = System.currentTimeMillis() - start;
+
+            System.out.println("Number of nodes: " + nodeCount + " Time: " + String.valueOf(total));
+        }
+    }
+}
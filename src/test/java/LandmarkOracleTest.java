@@ -0,0 +1,198 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LandmarkOracleTest {
+    private GraphReader graphReader;
+    private LandmarkOracle graph;
+    private FloydWarshall reference;
+
+    /**
+     * Setup for edge cases from input file, hop restriction of the input is ignored.
+     *
+     * @param testcase input file suffix
+     * @param landmarkCount number of landmarks
+     * @param selection strategy choosing the landmarks
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase, int landmarkCount, LandmarkOracle.Selection selection) throws Exception {
+        graphReader = new GraphReader("floydwarshall", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new LandmarkOracle(nodeCount, landmarkCount, selection);
+        reference = new FloydWarshall(nodeCount);
+
+        // From node, to node and hops are not used
+        graphReader.next();
+        graphReader.next();
+        graphReader.next();
+
+        // Setup graph
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                int value = Integer.parseInt(graphReader.next());
+                double weight = a == b ? 0 : value == 0 ? Double.POSITIVE_INFINITY : value;
+                graph.addEdge(a, b, weight);
+                reference.addEdge(a, b, weight);
+            }
+        }
+    }
+
+    /**
+     * Checks exact costs and both bounds of all pairs against Floyd-Warshall.
+     */
+    private void assertSameAsReference() {
+        int nodeCount = graph.getNumberOfNodes();
+        DistanceMatrix expected = reference.distances(nodeCount);
+
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                double distance = expected.distance(a, b);
+                assertEquals(distance, graph.distance(a, b), 0.0);
+                assertTrue(graph.lowerBound(a, b) <= distance);
+                assertTrue(graph.estimate(a, b) >= distance);
+            }
+        }
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2, LandmarkOracle.DEFAULT_LANDMARKS, LandmarkOracle.Selection.FARTHEST);
+
+        assertEquals(1, graph.getLandmarks().length);
+        assertEquals(0.0, graph.distance(0, 0), 0.0);
+        assertEquals(0.0, graph.estimate(0, 0), 0.0);
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4, 2, LandmarkOracle.Selection.DEGREE);
+
+        assertEquals(7.0, graph.distance(2, 1), 0.0);
+        assertSameAsReference();
+    }
+
+    /**
+     * Negative 1:
+     * Negative Kanten werden abgelehnt
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void negative_1() {
+        graph = new LandmarkOracle(2);
+        graph.addEdge(0, 1, -1);
+    }
+
+    /**
+     * Testcase 12:
+     * Ungerichteter, gewichteter Graph
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12, 3, LandmarkOracle.Selection.FARTHEST);
+
+        assertEquals(8.0, graph.distance(6, 8), 0.0);
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 13:
+     * Nicht zusammenhängender Graph
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13, 2, LandmarkOracle.Selection.FARTHEST);
+
+        assertEquals(Double.POSITIVE_INFINITY, graph.distance(0, 5), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, graph.lowerBound(0, 5), 0.0);
+        assertSameAsReference();
+    }
+
+    /**
+     * Random 1:
+     * Dünner Graph, beide Auswahlverfahren verglichen mit Johnson
+     */
+    @Test public void random_1() {
+        int nodeCount = 500;
+
+        for (LandmarkOracle.Selection selection : LandmarkOracle.Selection.values()) {
+            Random random = new Random(11);
+            graph = new LandmarkOracle(nodeCount, 4, selection);
+            Johnson johnson = new Johnson(nodeCount);
+            for (int edge = 0; edge < 3 * nodeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                double weight = random.nextInt(20);
+                graph.addEdge(a, b, weight);
+                johnson.addEdge(a, b, weight);
+            }
+
+            DistanceMatrix expected = johnson.distances();
+            for (int query = 0; query < 2000; query++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                double distance = expected.distance(a, b);
+                assertEquals(distance, graph.distance(a, b), 0.0);
+                assertTrue(graph.lowerBound(a, b) <= distance);
+                assertTrue(graph.estimate(a, b) >= distance);
+            }
+        }
+    }
+
+    /**
+     * Frozen 1:
+     * Kanten können nach der ersten Abfrage nicht mehr hinzugefügt werden
+     */
+    @Test(expected = IllegalStateException.class)
+    public void frozen_1() {
+        graph = new LandmarkOracle(2);
+        graph.addEdge(0, 1, 1);
+        graph.estimate(0, 1);
+        graph.addEdge(1, 0, 1);
+    }
+
+    /**
+     * Scalability 1:
+     * Dünner Graph mit 100'000 Knoten, Abfragen zwischen zufälligen Knoten
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 100000;
+        Random random = new Random(2);
+
+        graph = new LandmarkOracle(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            // Ring keeps the graph connected
+            graph.addEdge(a, (a + 1) % nodeCount, random.nextInt(100));
+            graph.addEdge(a, random.nextInt(nodeCount), random.nextInt(100));
+            graph.addEdge(a, random.nextInt(nodeCount), random.nextInt(100));
+        }
+
+        double start = System.currentTimeMillis();
+        graph.getLandmarks();
+        double preparation = System.currentTimeMillis() - start;
+
+        int queries = 1000;
+        long settled = 0;
+        start = System.currentTimeMillis();
+        for (int query = 0; query < queries; query++) {
+            assertTrue(graph.distance(random.nextInt(nodeCount), random.nextInt(nodeCount)) < Double.POSITIVE_INFINITY);
+            settled += graph.getSettledCount();
+        }
+        double total = System.currentTimeMillis() - start;
+
+        System.out.println("Number of nodes: " + nodeCount + " Preparation: " + String.valueOf(preparation)
+                + " Time per query: " + String.valueOf(total / queries)
+                + " Settled per query: " + String.valueOf(settled / queries));
+    }
+}
@@ -0,0 +1,234 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MinCostMaxFlowTest {
+    private GraphReader graphReader;
+    private MinCostMaxFlow graph;
+
+    // Max flow params
+    int s;
+    int t;
+
+    /**
+     * Setup for edge cases from input file, every edge has costs 1.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("fordfulkerson", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new MinCostMaxFlow(nodeCount);
+
+        s = Integer.parseInt(graphReader.next());
+        t = Integer.parseInt(graphReader.next());
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (value > 0) {
+                    graph.addEdge(i, j, value, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+        assertEquals(0.0, graph.getTotalCost(), 0.01);
+    }
+
+    /**
+     * Testcase 3:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 5
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertEquals(8.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 5:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 0
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 7:
+     * Nicht zusammenhängender Graph
+     * verbundene Knoten
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertEquals(2.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 8:
+     * Graph zur Verifikation von
+     * Edmonds-Karp
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Both paths have 2 edges
+        assertEquals(20000.0, graph.maxFlow(s, t), 0.01);
+        assertEquals(40000.0, graph.getTotalCost(), 0.01);
+    }
+
+    /**
+     * Costs 1:
+     * Günstigster Weg ist nicht der kürzeste, Fluss pro Kante überprüft
+     */
+    @Test public void costs_1() {
+        graph = new MinCostMaxFlow(4);
+        int[] edges = {
+                graph.addEdge(0, 1, 2, 1),
+                graph.addEdge(0, 2, 1, 2),
+                graph.addEdge(1, 2, 1, 1),
+                graph.addEdge(1, 3, 1, 3),
+                graph.addEdge(2, 3, 2, 1)
+        };
+
+        assertEquals(3.0, graph.maxFlow(0, 3), 0.0);
+        assertEquals(10.0, graph.getTotalCost(), 0.0);
+        double[] expected = {2, 1, 1, 1, 2};
+        for (int edge = 0; edge < edges.length; edge++) {
+            assertEquals(expected[edge], graph.flow(edges[edge]), 0.0);
+        }
+    }
+
+    /**
+     * Negative 1:
+     * Zyklus mit negativen Kosten und Kapazität
+     */
+    @Test(expected = IllegalStateException.class)
+    public void negative_1() {
+        graph = new MinCostMaxFlow(3);
+        graph.addEdge(0, 1, 1, 1);
+        graph.addEdge(1, 2, 1, -3);
+        graph.addEdge(2, 1, 1, 1);
+        graph.maxFlow(0, 2);
+    }
+
+    /**
+     * Random 1:
+     * Zufällige Netzwerke mit negativen Kosten, Fluss verglichen mit Dinic,
+     * Kosten optimal wenn das Restnetzwerk keinen negativen Zyklus enthält
+     */
+    @Test public void random_1() {
+        Random random = new Random(12);
+
+        for (int round = 0; round < 50; round++) {
+            int nodeCount = 2 + random.nextInt(30);
+            int[] potential = new int[nodeCount];
+            for (int a = 0; a < nodeCount; a++) {
+                potential[a] = random.nextInt(10);
+            }
+
+            int edgeCount = 3 * nodeCount;
+            int[][] edges = new int[edgeCount][];
+            graph = new MinCostMaxFlow(nodeCount);
+            Dinic reference = new Dinic(nodeCount);
+            for (int edge = 0; edge < edgeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                // Costs c + p[b] - p[a] with c >= 0 sum up to c along every cycle
+                edges[edge] = new int[]{a, b, random.nextInt(20), random.nextInt(10) + potential[b] - potential[a]};
+                graph.addEdge(a, b, edges[edge][2], edges[edge][3]);
+                reference.addEdge(a, b, edges[edge][2]);
+            }
+
+            int t = nodeCount - 1;
+            assertEquals(reference.maxFlow(0, t), graph.maxFlow(0, t), 0.0);
+
+            // Costs of flow per edge sum up to total costs
+            double costs = 0;
+            for (int edge = 0; edge < edgeCount; edge++) {
+                costs += graph.flow(edge) * edges[edge][3];
+            }
+            assertEquals(graph.getTotalCost(), costs, 0.0);
+            assertFalse(hasNegativeResidualCycle(edges, nodeCount));
+        }
+    }
+
+    /**
+     * Bellman-Ford over the residual arcs of the current flow.
+     */
+    private boolean hasNegativeResidualCycle(int[][] edges, int nodeCount) {
+        double[] distance = new double[nodeCount];
+        for (int round = 0; round <= nodeCount; round++) {
+            boolean changed = false;
+            for (int edge = 0; edge < edges.length; edge++) {
+                int a = edges[edge][0];
+                int b = edges[edge][1];
+                double flow = graph.flow(edge);
+                if (flow < edges[edge][2] && distance[a] + edges[edge][3] < distance[b]) {
+                    distance[b] = distance[a] + edges[edge][3];
+                    changed = true;
+                }
+                if (flow > 0 && distance[b] - edges[edge][3] < distance[a]) {
+                    distance[a] = distance[b] - edges[edge][3];
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scalability 1:
+     * Dünnes Netzwerk mit 20'000 Knoten
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 20000;
+        Random random = new Random(4);
+
+        graph = new MinCostMaxFlow(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int edge = 0; edge < 5; edge++) {
+                graph.addEdge(a, random.nextInt(nodeCount), 1 + random.nextInt(1000), random.nextInt(100));
+            }
+        }
+
+        double start = System.currentTimeMillis();
+        double flow = graph.maxFlow(0, nodeCount - 1);
+        double total = System.currentTimeMillis() - start;
+
+        assertTrue(flow > 0);
+        System.out.println("Number of nodes: " + nodeCount + " Execution time: " + String.valueOf(total)
+                + " Costs: " + graph.getTotalCost());
+    }
+}
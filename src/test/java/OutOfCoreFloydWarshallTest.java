@@ -0,0 +1,331 @@
+import org.junit.After;
+import org.junit.Test;
+import util.GraphReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OutOfCoreFloydWarshallTest {
+    private GraphReader graphReader;
+    private OutOfCoreFloydWarshall graph;
+    private Path file;
+
+    // Shortest path params
+    int i;
+    int j;
+    int k;
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("floydwarshall", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        file = Files.createTempFile("floydwarshall", ".tiles");
+        // Small tiles, so the test graphs span several tiles
+        graph = OutOfCoreFloydWarshall.create(file, nodeCount, 2, 3);
+
+        // From node
+        i = Integer.parseInt(graphReader.next());
+        // To node
+        j = Integer.parseInt(graphReader.next());
+        // Nodes v0, ... , vk-1 that can be used for hops
+        k = Integer.parseInt(graphReader.next());
+
+        // Setup graph
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (a == b) {
+                    // Set diagonal elements to 0
+                    graph.addEdge(a, b, 0);
+                } else if (value == 0) {
+                    // Set unknown values to infinity
+                    graph.addEdge(a, b, Double.POSITIVE_INFINITY);
+                } else
+                    graph.addEdge(a, b, value);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (graph != null) {
+            graph.close();
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertEquals("0.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        // Check result
+        assertEquals("0.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 3:
+     * Graph mit 1 Knoten und Schleife
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertEquals("0.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     * i = 2, j = 1, k = 0
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        // Check result
+        assertEquals("Infinity", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 5:
+     * Gerichteter, gewichteter Graph
+     * i = 0, j = 2, k = 0
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertEquals("Infinity", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 6:
+     * Gerichteter, gewichteter Graph
+     * i = 2, j = 1, k = 1
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertEquals("12.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 7:
+     * Gerichteter, gewichteter Graph
+     * i = 0, j = 2, k = 2
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertEquals("9.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 8:
+     * Gerichteter, gewichteter Graph
+     * i = 2, j = 1, k = 4
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Check result
+        assertEquals("7.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 9:
+     * Gerichteter, gewichteter Graph
+     * i = 0, j = 2, k = 4
+     */
+    @Test public void testcase_9() throws Exception {
+        // Setup graph
+        setupFromFile(9);
+
+        // Check result
+        assertEquals("4.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 10:
+     * Gerichteter, gewichteter Graph
+     * mit negativem Zyklus
+     */
+    @Test public void testcase_10() throws Exception {
+        // Setup graph
+        setupFromFile(10);
+
+        // Check result
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 11:
+     * Gerichteter, gewichteter Graph
+     * mit negativen Kanten
+     */
+    @Test public void testcase_11() throws Exception {
+        // Setup graph
+        setupFromFile(11);
+
+        // Check result
+        assertEquals("4.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 12:
+     * Ungerichteter, gewichteter Graph
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Check result
+        assertEquals("8.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 13:
+     * Nicht zusammenhängender Graph
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        // Check result
+        assertEquals("Infinity", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Random 1:
+     * Zufälliger Graph mit wenigen Kacheln im Speicher, schrittweise fortgesetzt
+     */
+    @Test public void random_1() throws Exception {
+        int nodeCount = 100;
+        Random random = new Random(21);
+        file = Files.createTempFile("floydwarshall", ".tiles");
+        graph = OutOfCoreFloydWarshall.create(file, nodeCount, 16, 3);
+        FloydWarshall reference = new FloydWarshall(nodeCount, 16);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                double weight = a == b ? 0 : random.nextBoolean() ? Double.POSITIVE_INFINITY : random.nextInt(100);
+                graph.addEdge(a, b, weight);
+                reference.addEdge(a, b, weight);
+            }
+        }
+
+        for (int pivots : new int[]{0, 10, 40, 41, nodeCount}) {
+            assertTrue(graph.relax(pivots));
+            DistanceMatrix expected = reference.distances(pivots);
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    assertEquals(expected.distance(a, b), graph.distance(a, b), 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reopen 1:
+     * Berechnete Matrix wird aus der Datei gelesen und fortgesetzt
+     */
+    @Test public void reopen_1() throws Exception {
+        setupFromFile(8);
+        String expected = "7.0";
+        graph.relax(2);
+        graph.close();
+
+        graph = OutOfCoreFloydWarshall.open(file, 4);
+        assertEquals(4, graph.getNumberOfNodes());
+        assertEquals(2, graph.getPivots());
+        assertEquals(expected, graph.shortestPath(i, j, k));
+        assertEquals(4, graph.getPivots());
+        graph.close();
+
+        graph = OutOfCoreFloydWarshall.open(file, 4);
+        assertEquals(4, graph.getPivots());
+        assertEquals(expected, String.valueOf(graph.distance(i, j)));
+    }
+
+    /**
+     * Close 1:
+     * Mehrfaches Schliessen ist erlaubt
+     */
+    @Test public void close_1() throws Exception {
+        setupFromFile(8);
+        graph.relax(2);
+        graph.close();
+        graph.close();
+
+        graph = OutOfCoreFloydWarshall.open(file, 4);
+        assertEquals(2, graph.getPivots());
+    }
+
+    /**
+     * Arguments 1:
+     * Kachel, deren Puffer nicht in ein Array passt
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void arguments_1() throws Exception {
+        file = Files.createTempFile("floydwarshall", ".tiles");
+        graph = OutOfCoreFloydWarshall.create(file, 4, 20000, 3);
+    }
+
+    /**
+     * Arguments 2:
+     * Ungültige Argumente werden vor dem Öffnen der Datei geprüft
+     */
+    @Test public void arguments_2() throws Exception {
+        setupFromFile(8);
+        graph.close();
+
+        try {
+            OutOfCoreFloydWarshall.open(file, 2);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        Path missing = file.resolveSibling(file.getFileName() + ".missing");
+        try {
+            OutOfCoreFloydWarshall.create(missing, 4, 16, 2);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertFalse(Files.exists(missing));
+        }
+    }
+}
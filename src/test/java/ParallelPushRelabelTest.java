@@ -0,0 +1,193 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelPushRelabelTest {
+    private GraphReader graphReader;
+    private ParallelPushRelabel graph;
+
+    // Max flow params
+    int s;
+    int t;
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("fordfulkerson", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new ParallelPushRelabel(nodeCount);
+
+        s = Integer.parseInt(graphReader.next());
+        t = Integer.parseInt(graphReader.next());
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (value > 0) {
+                    graph.addEdge(i, j, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 3:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 5
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertEquals(8.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 5:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 0
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 6:
+     * Nicht zusammenhängender Graph
+     * unverbundene Knoten
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 8:
+     * Graph zur Verifikation von
+     * Edmonds-Karp
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Check result
+        assertEquals(20000.0, graph.maxFlow(s, t), 0.01);
+        assertEquals(3, graph.minCut().cardinality());
+    }
+
+    /**
+     * Random 1:
+     * Zufällige Netzwerke mit mehreren Threads, verglichen mit Ford-Fulkerson
+     */
+    @Test public void random_1() {
+        Random random = new Random(21);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int round = 0; round < 30; round++) {
+                // Large enough to split the rounds into tasks
+                int nodeCount = 300 + random.nextInt(700);
+                graph = new ParallelPushRelabel(nodeCount, pool);
+                FordFulkerson reference = new FordFulkerson(nodeCount);
+                int[][] edges = new int[4 * nodeCount][];
+                for (int edge = 0; edge < edges.length; edge++) {
+                    int a = random.nextInt(nodeCount);
+                    int b = random.nextInt(nodeCount);
+                    int capacity = random.nextInt(20);
+                    edges[edge] = new int[]{a, b, capacity};
+                    graph.addEdge(a, b, capacity);
+                    reference.addEdge(a, b, capacity);
+                }
+
+                double expected = reference.maxFlow(0, nodeCount - 1);
+                assertEquals(expected, graph.maxFlow(0, nodeCount - 1), 0.0);
+
+                // Capacity of the cut equals the flow
+                BitSet cut = graph.minCut();
+                assertTrue(cut.get(0));
+                assertFalse(cut.get(nodeCount - 1));
+                double capacity = 0;
+                for (int[] edge : edges) {
+                    if (cut.get(edge[0]) && !cut.get(edge[1])) {
+                        capacity += edge[2];
+                    }
+                }
+                assertEquals(expected, capacity, 0.0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Scalability 1:
+     * Dünnes Netzwerk mit 200'000 Knoten, 1 bis 32 Threads
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 200000;
+        Random random = new Random(4);
+
+        Dinic reference = new Dinic(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int edge = 0; edge < 5; edge++) {
+                int b = random.nextInt(nodeCount);
+                int capacity = 1 + random.nextInt(1000);
+                reference.addEdge(a, b, capacity);
+            }
+        }
+        double expected = reference.maxFlow(0, nodeCount - 1);
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                graph = new ParallelPushRelabel(nodeCount, pool);
+                random = new Random(4);
+                for (int a = 0; a < nodeCount; a++) {
+                    for (int edge = 0; edge < 5; edge++) {
+                        graph.addEdge(a, random.nextInt(nodeCount), 1 + random.nextInt(1000));
+                    }
+                }
+
+                double start = System.currentTimeMillis();
+                assertEquals(expected, graph.maxFlow(0, nodeCount - 1), 0.0);
+                double total = System.currentTimeMillis() - start;
+
+                System.out.println("Threads: " + threads + " Execution time: " + String.valueOf(total));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
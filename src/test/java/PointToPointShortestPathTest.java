@@ -0,0 +1,199 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PointToPointShortestPathTest {
+    private GraphReader graphReader;
+    private PointToPointShortestPath graph;
+    private FloydWarshall reference;
+
+    /**
+     * Setup for edge cases from input file, hop restriction of the input is ignored.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("floydwarshall", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new PointToPointShortestPath(nodeCount);
+        reference = new FloydWarshall(nodeCount);
+
+        // From node, to node and hops are not used
+        graphReader.next();
+        graphReader.next();
+        graphReader.next();
+
+        // Setup graph
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (a == b) {
+                    // Set diagonal elements to 0
+                    reference.addEdge(a, b, 0);
+                } else if (value == 0) {
+                    // Set unknown values to infinity
+                    reference.addEdge(a, b, Double.POSITIVE_INFINITY);
+                } else {
+                    graph.addEdge(a, b, value);
+                    reference.addEdge(a, b, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks all pairs against Floyd-Warshall using all nodes as hops.
+     */
+    private void assertSameAsReference() {
+        int nodeCount = graph.getNumberOfNodes();
+        DistanceMatrix expected = reference.distances(nodeCount);
+
+        for (int a = 0; a < nodeCount; a++) {
+            double[] distances = graph.distancesFrom(a);
+            for (int b = 0; b < nodeCount; b++) {
+                assertEquals(expected.distance(a, b), graph.distance(a, b), 0.0);
+                assertEquals(expected.distance(a, b), distances[b], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        assertEquals("0.0", graph.shortestPath(0, 0));
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        assertEquals("7.0", graph.shortestPath(2, 1));
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 10:
+     * Gerichteter, gewichteter Graph mit negativem Zyklus
+     */
+    @Test public void testcase_10() throws Exception {
+        // Setup graph
+        setupFromFile(10);
+
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(0, 3));
+    }
+
+    /**
+     * Testcase 11:
+     * Gerichteter, gewichteter Graph mit negativer Kante
+     */
+    @Test public void testcase_11() throws Exception {
+        // Setup graph
+        setupFromFile(11);
+
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 12:
+     * Ungerichteter, gewichteter Graph
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        assertEquals("8.0", graph.shortestPath(6, 8));
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 13:
+     * Nicht zusammenhängender Graph
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        assertEquals("Infinity", graph.shortestPath(0, 5));
+        assertSameAsReference();
+    }
+
+    /**
+     * Random 1:
+     * Dünner Graph mit und ohne negative Kanten, verglichen mit Johnson
+     */
+    @Test public void random_1() {
+        int nodeCount = 400;
+
+        for (boolean negative : new boolean[]{false, true}) {
+            Random random = new Random(17);
+            int[] potential = new int[nodeCount];
+            for (int a = 0; a < nodeCount; a++) {
+                potential[a] = negative ? random.nextInt(30) : 0;
+            }
+
+            graph = new PointToPointShortestPath(nodeCount);
+            Johnson johnson = new Johnson(nodeCount);
+            for (int edge = 0; edge < 3 * nodeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                // Costs c + p[b] - p[a] with c >= 0 sum up to c along every cycle
+                double weight = random.nextInt(20) + potential[b] - potential[a];
+                graph.addEdge(a, b, weight);
+                johnson.addEdge(a, b, weight);
+            }
+
+            DistanceMatrix expected = johnson.distances();
+            for (int query = 0; query < 2000; query++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                assertEquals(expected.distance(a, b), graph.distance(a, b), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Scalability 1:
+     * Dünner Graph mit 100'000 Knoten, Abfragen zwischen zufälligen Knoten
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 100000;
+        Random random = new Random(2);
+
+        graph = new PointToPointShortestPath(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            // Ring keeps the graph connected
+            graph.addEdge(a, (a + 1) % nodeCount, random.nextInt(100));
+            graph.addEdge(a, random.nextInt(nodeCount), random.nextInt(100));
+            graph.addEdge(a, random.nextInt(nodeCount), random.nextInt(100));
+        }
+
+        // Warm up
+        for (int query = 0; query < 100; query++) {
+            graph.distance(random.nextInt(nodeCount), random.nextInt(nodeCount));
+        }
+
+        int queries = 1000;
+        double start = System.currentTimeMillis();
+        for (int query = 0; query < queries; query++) {
+            assertTrue(graph.distance(random.nextInt(nodeCount), random.nextInt(nodeCount)) < Double.POSITIVE_INFINITY);
+        }
+        double total = System.currentTimeMillis() - start;
+
+        System.out.println("Number of nodes: " + nodeCount + " Time per query: " + String.valueOf(total / queries));
+    }
+}
@@ -0,0 +1,254 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PushRelabelTest {
+    private GraphReader graphReader;
+    private PushRelabel graph;
+
+    // Max flow params
+    int s;
+    int t;
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("fordfulkerson", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new PushRelabel(nodeCount);
+
+        s = Integer.parseInt(graphReader.next());
+        t = Integer.parseInt(graphReader.next());
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (value > 0) {
+                    graph.addEdge(i, j, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 3:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 5
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertEquals(8.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 1
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        // Check result
+        assertEquals(4.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 5:
+     * Gerichteter, gewichteter Graph
+     * s = 0, t = 0
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 6:
+     * Nicht zusammenhängender Graph
+     * unverbundene Knoten
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertEquals(0.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 7:
+     * Nicht zusammenhängender Graph
+     * verbundene Knoten
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertEquals(2.0, graph.maxFlow(s, t), 0.01);
+    }
+
+    /**
+     * Testcase 8:
+     * Graph zur Verifikation von
+     * Edmonds-Karp
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+        // Check result
+        assertEquals(20000.0, graph.maxFlow(s, t), 0.01);
+
+        // Both edges into t are cut
+        BitSet cut = graph.minCut();
+        assertTrue(cut.get(s));
+        assertFalse(cut.get(t));
+        assertEquals(3, cut.cardinality());
+    }
+
+    /**
+     * Random 1:
+     * Zufällige Netzwerke, verglichen mit Edmonds-Karp auf der Kapazitätsmatrix
+     */
+    @Test public void random_1() {
+        Random random = new Random(3);
+
+        for (int round = 0; round < 50; round++) {
+            int nodeCount = 2 + random.nextInt(30);
+            double[][] capacities = new double[nodeCount][nodeCount];
+            graph = new PushRelabel(nodeCount);
+            for (int edge = 0; edge < 3 * nodeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                int capacity = random.nextInt(20);
+                capacities[a][b] += capacity;
+                graph.addEdge(a, b, capacity);
+            }
+
+            double expected = textbook(capacities, 0, nodeCount - 1);
+            assertEquals(expected, graph.maxFlow(0, nodeCount - 1), 0.0);
+
+            // Capacity of the cut equals the flow
+            BitSet cut = graph.minCut();
+            assertTrue(cut.get(0));
+            assertFalse(cut.get(nodeCount - 1));
+            double capacity = 0;
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    if (cut.get(a) && !cut.get(b)) {
+                        capacity += capacities[a][b];
+                    }
+                }
+            }
+            assertEquals(expected, capacity, 0.0);
+        }
+    }
+
+    /**
+     * Reference implementation with Edmonds-Karp on the capacity matrix.
+     */
+    private double textbook(double[][] capacities, int s, int t) {
+        int nodeCount = capacities.length;
+        double[][] residual = new double[nodeCount][];
+        for (int a = 0; a < nodeCount; a++) {
+            residual[a] = capacities[a].clone();
+        }
+
+        double total = 0;
+        int[] parent = new int[nodeCount];
+        while (true) {
+            Arrays.fill(parent, -1);
+            parent[s] = s;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(s);
+            while (!queue.isEmpty() && parent[t] == -1) {
+                int cur = queue.poll();
+                for (int other = 0; other < nodeCount; other++) {
+                    if (parent[other] == -1 && residual[cur][other] > 0) {
+                        parent[other] = cur;
+                        queue.add(other);
+                    }
+                }
+            }
+            if (parent[t] == -1) {
+                return total;
+            }
+
+            double min = Double.MAX_VALUE;
+            for (int cur = t; cur != s; cur = parent[cur]) {
+                min = Math.min(min, residual[parent[cur]][cur]);
+            }
+            for (int cur = t; cur != s; cur = parent[cur]) {
+                residual[parent[cur]][cur] -= min;
+                residual[cur][parent[cur]] += min;
+            }
+            total += min;
+        }
+    }
+
+    /**
+     * Scalability 1:
+     * Dichtes Netzwerk mit vollständiger Kapazitätsmatrix wie in den Eingabedateien
+     */
+    @Test public void scalability_1() {
+        int nodeCount = 1500;
+        Random random = new Random(4);
+
+        graph = new PushRelabel(nodeCount);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                graph.addEdge(a, b, random.nextInt() & Integer.MAX_VALUE);
+            }
+        }
+
+        double start = System.currentTimeMillis();
+        double flow = graph.maxFlow(0, nodeCount - 1);
+        double total = System.currentTimeMillis() - start;
+
+        assertTrue(flow > 0);
+        System.out.println("Number of nodes: " + nodeCount + " Execution time: " + String.valueOf(total));
+    }
+}
@@ -0,0 +1,274 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StronglyConnectedComponentsTest {
+    private GraphReader graphReader;
+    private StronglyConnectedComponents graph;
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("cycledetection", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new StronglyConnectedComponents(nodeCount);
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (value != 0)
+                    graph.addEdge(i, j, value);
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertFalse(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        // Check result
+        assertFalse(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 3:
+     * Graph mit 1 Knoten und Schleife
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 4:
+     * Gewichteter, gerichteter Graph ohne Zyklus
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        // Check result
+        assertFalse(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 5:
+     * Gewichteter, gerichteter Graph mit Zyklus
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 6:
+     * Gewichteter, gerichteter Graph ohne Zyklus mit Schleife
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 7:
+     * Gewichteter, gerichteter Graph mit Zyklus und Schleife
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 8:
+     * Gewichteter, gerichteter Graph mit trivialem Zyklus
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 9:
+     * Negativ gewichteter, gerichteter Graph mit Zyklus
+     */
+    @Test public void testcase_9() throws Exception {
+        // Setup graph
+        setupFromFile(9);
+
+        // Check result
+        assertFalse(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 10:
+     * Negativ gewichteter, gerichteter Graph mit Zyklus
+     */
+    @Test public void testcase_10() throws Exception {
+        // Setup graph
+        setupFromFile(10);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 11:
+     * Graph mit gemeinsamen Target aber ohne Zyklus
+     */
+    @Test public void testcase_11() throws Exception {
+        // Setup graph
+        setupFromFile(11);
+
+        // Check result
+        assertFalse(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 12:
+     * Nicht zusammenhängender Graph mit Zyklus
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Testcase 13:
+     * Graph mit parallelen Kanten
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        // Check result
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Components 5:
+     * Komponenten eines Graphen mit Zyklus
+     */
+    @Test public void components_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Cycle 0 -> 2 -> 1 -> 0 and node 3
+        int[] ids = graph.componentIds();
+        assertEquals(2, graph.getNumberOfComponents());
+        assertEquals(ids[0], ids[1]);
+        assertEquals(ids[0], ids[2]);
+        assertTrue(ids[0] != ids[3]);
+    }
+
+    /**
+     * Components 12:
+     * Komponenten eines nicht zusammenhängenden Graphen
+     */
+    @Test public void components_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Cycle 0 -> 2 -> 3 -> 0 and node 1
+        int[] ids = graph.componentIds();
+        assertEquals(2, graph.getNumberOfComponents());
+        assertEquals(ids[0], ids[2]);
+        assertEquals(ids[0], ids[3]);
+        assertTrue(ids[0] != ids[1]);
+    }
+
+    /**
+     * Sequential 1:
+     * Kette von grossen Zyklen ohne Fork-Join-Pool
+     */
+    @Test public void sequential_1() {
+        int cycleCount = 10;
+        int cycleLength = 2000;
+        int nodeCount = cycleCount * cycleLength;
+        graph = new StronglyConnectedComponents(nodeCount, null);
+        for (int i = 0; i < nodeCount; i++) {
+            int first = i - i % cycleLength;
+            graph.addEdge(i, first + (i + 1) % cycleLength, 1);
+            if (i == first && i + cycleLength < nodeCount) {
+                // Connect cycle to next cycle
+                graph.addEdge(i, i + cycleLength, 1);
+            }
+        }
+
+        int[] ids = graph.componentIds();
+        assertEquals(cycleCount, graph.getNumberOfComponents());
+        for (int i = 0; i < nodeCount; i++) {
+            assertEquals(ids[i - i % cycleLength], ids[i]);
+        }
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Scalability 1:
+     * Kette von grossen Zyklen
+     */
+    @Test public void scalability_1() {
+        int cycleCount = 100;
+        int cycleLength = 2000;
+        int nodeCount = cycleCount * cycleLength;
+        graph = new StronglyConnectedComponents(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            int first = i - i % cycleLength;
+            graph.addEdge(i, first + (i + 1) % cycleLength, 1);
+            if (i == first && i + cycleLength < nodeCount) {
+                // Connect cycle to next cycle
+                graph.addEdge(i, i + cycleLength, 1);
+            }
+        }
+
+        double start = System.currentTimeMillis();
+        assertEquals(cycleCount, graph.getNumberOfComponents());
+        double end = System.currentTimeMillis();
+
+        assertTrue(graph.hasCycle());
+        System.out.println(
+                "Number of nodes: " + nodeCount + " Execution time: " + String.valueOf(end - start));
+    }
+}
@@ -0,0 +1,165 @@
+import org.junit.Test;
+import util.GraphReader;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TransitiveClosureTest {
+    private GraphReader graphReader;
+    private TransitiveClosure graph;
+    private FloydWarshall reference;
+
+    /**
+     * Setup for edge cases from input file, hop restriction of the input is ignored.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("floydwarshall", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = new TransitiveClosure(nodeCount);
+        reference = new FloydWarshall(nodeCount);
+
+        // From node, to node and hops are not used
+        graphReader.next();
+        graphReader.next();
+        graphReader.next();
+
+        // Setup graph
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                int value = Integer.parseInt(graphReader.next());
+                double weight = a == b ? 0 : value == 0 ? Double.POSITIVE_INFINITY : value;
+                graph.addEdge(a, b, weight);
+                reference.addEdge(a, b, weight);
+            }
+        }
+    }
+
+    /**
+     * Checks all pairs against the finite costs of Floyd-Warshall.
+     */
+    private void assertSameAsReference() {
+        int nodeCount = graph.getNumberOfNodes();
+        DistanceMatrix expected = reference.distances(nodeCount);
+
+        for (int a = 0; a < nodeCount; a++) {
+            BitSet reachable = graph.reachableFrom(a);
+            for (int b = 0; b < nodeCount; b++) {
+                boolean finite = expected.distance(a, b) != Double.POSITIVE_INFINITY;
+                assertEquals(finite, graph.reachable(a, b));
+                assertEquals(finite, reachable.get(b));
+            }
+        }
+    }
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        assertEquals(0, graph.closure().length);
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        assertTrue(graph.reachable(2, 1));
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 12:
+     * Ungerichteter, gewichteter Graph
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        assertSameAsReference();
+    }
+
+    /**
+     * Testcase 13:
+     * Nicht zusammenhängender Graph
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        assertFalse(graph.reachable(0, 5));
+        assertSameAsReference();
+    }
+
+    /**
+     * Random 1:
+     * Dünner Graph über mehrere Wörter pro Zeile, parallel und sequentiell berechnet
+     */
+    @Test public void random_1() {
+        int nodeCount = 700;
+
+        for (ForkJoinPool pool : new ForkJoinPool[]{null, ForkJoinPool.commonPool()}) {
+            Random random = new Random(31);
+            graph = new TransitiveClosure(nodeCount, pool);
+            reference = new FloydWarshall(nodeCount);
+            for (int a = 0; a < nodeCount; a++) {
+                for (int b = 0; b < nodeCount; b++) {
+                    reference.addEdge(a, b, Double.POSITIVE_INFINITY);
+                }
+            }
+            // Few edges leave parts of the graph unreachable
+            for (int edge = 0; edge < nodeCount; edge++) {
+                int a = random.nextInt(nodeCount);
+                int b = random.nextInt(nodeCount);
+                graph.addEdge(a, b, 1);
+                reference.addEdge(a, b, 1);
+            }
+
+            assertSameAsReference();
+        }
+    }
+
+    /**
+     * Size 1:
+     * Matrix mit mehr Einträgen als ein Array fassen kann
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void size_1() {
+        new TransitiveClosure(400000);
+    }
+
+    /**
+     * Scalability 1:
+     * Graph mit vielen Knoten
+     */
+    @Test public void scalability_1() {
+        Random random = new Random(4);
+
+        for (int nodeCount : new int[]{1000, 2000, 4000}) {
+            graph = new TransitiveClosure(nodeCount);
+            for (int edge = 0; edge < 2 * nodeCount; edge++) {
+                graph.addEdge(random.nextInt(nodeCount), random.nextInt(nodeCount), 1);
+            }
+
+            double start = System.currentTimeMillis();
+            graph.reachable(0, 0);
+            double total = System.currentTimeMillis() - start;
+
+            System.out.println("Number of nodes: " + nodeCount + " Time: " + String.valueOf(total));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import util.GraphReader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests IntFloydWarshall, LongFloydWarshall and FloatFloydWarshall with the same cases.
+ */
+@RunWith(Parameterized.class)
+public class TypedFloydWarshallTest {
+    private GraphReader graphReader;
+    private TypedFloydWarshall graph;
+
+    // Creates the graph from number of nodes and tile size
+    private final BiFunction<Integer, Integer, TypedFloydWarshall> factory;
+    // Largest finite costs of the element type
+    private final double largest;
+    // Costs small enough to be represented, but twice of it is not
+    private final double big;
+
+    // Shortest path params
+    int i;
+    int j;
+    int k;
+
+    @Parameters
+    public static Collection<Object[]> types() {
+        BiFunction<Integer, Integer, TypedFloydWarshall> ints = IntFloydWarshall::new;
+        BiFunction<Integer, Integer, TypedFloydWarshall> longs = LongFloydWarshall::new;
+        BiFunction<Integer, Integer, TypedFloydWarshall> floats = FloatFloydWarshall::new;
+        return Arrays.asList(new Object[][]{
+                {ints, (double) (IntFloydWarshall.INFINITY - 1), 1.5e9},
+                {longs, (double) (LongFloydWarshall.INFINITY - 1), 6e18},
+                {floats, (double) Float.MAX_VALUE, 3e38}
+        });
+    }
+
+    public TypedFloydWarshallTest(BiFunction<Integer, Integer, TypedFloydWarshall> factory, double largest, double big) {
+        this.factory = factory;
+        this.largest = largest;
+        this.big = big;
+    }
+
+    /**
+     * Setup for edge cases from input file.
+     *
+     * @param testcase input file suffix
+     * @throws Exception
+     */
+    public void setupFromFile(int testcase) throws Exception {
+        graphReader = new GraphReader("floydwarshall", testcase);
+
+        // Read data
+        int nodeCount = Integer.parseInt(graphReader.next());
+        graph = factory.apply(nodeCount, FloydWarshall.DEFAULT_TILE_SIZE);
+
+        // From node
+        i = Integer.parseInt(graphReader.next());
+        // To node
+        j = Integer.parseInt(graphReader.next());
+        // Nodes v0, ... , vk-1 that can be used for hops
+        k = Integer.parseInt(graphReader.next());
+
+        // Setup graph
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                int value = Integer.parseInt(graphReader.next());
+                if (a == b) {
+                    // Set diagonal elements to 0
+                    graph.addEdge(a, b, 0);
+                } else if (value == 0) {
+                    // Set unknown values to infinity
+                    graph.addEdge(a, b, Double.POSITIVE_INFINITY);
+                } else
+                    graph.addEdge(a, b, value);
+            }
+        }
+    }
+
+    /**
+     * Setup of a random graph, the same edges are added to the reference.
+     */
+    private FloydWarshall setupRandom(int nodeCount) {
+        Random random = new Random(13);
+        graph = factory.apply(nodeCount, 16);
+        FloydWarshall reference = new FloydWarshall(nodeCount, 16);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                double weight = a == b ? 0 : random.nextBoolean() ? Double.POSITIVE_INFINITY : random.nextInt(100);
+                graph.addEdge(a, b, weight);
+                reference.addEdge(a, b, weight);
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * Checks all pairs against the reference using the given pivots as hops.
+     */
+    private void assertSameAsReference(FloydWarshall reference, int pivots) {
+        int nodeCount = graph.getNumberOfNodes();
+        DistanceMatrix expected = reference.distances(pivots);
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                assertEquals(String.valueOf(expected.distance(a, b)), graph.shortestPath(a, b, pivots));
+            }
+        }
+    }
+
+
+    /**
+     * Testcase 1:
+     * Graph mit 0 Knoten
+     */
+    @Test public void testcase_1() throws Exception {
+        // Setup graph
+        setupFromFile(1);
+
+        // Check result
+        assertEquals("0.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 2:
+     * Graph mit 1 Knoten ohne Schleife
+     */
+    @Test public void testcase_2() throws Exception {
+        // Setup graph
+        setupFromFile(2);
+
+        // Check result
+        assertEquals("0.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 3:
+     * Graph mit 1 Knoten und Schleife
+     */
+    @Test public void testcase_3() throws Exception {
+        // Setup graph
+        setupFromFile(3);
+
+        // Check result
+        assertEquals("0.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 4:
+     * Gerichteter, gewichteter Graph
+     * i = 2, j = 1, k = 0
+     */
+    @Test public void testcase_4() throws Exception {
+        // Setup graph
+        setupFromFile(4);
+
+        // Check result
+        assertEquals("Infinity", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 5:
+     * Gerichteter, gewichteter Graph
+     * i = 0, j = 2, k = 0
+     */
+    @Test public void testcase_5() throws Exception {
+        // Setup graph
+        setupFromFile(5);
+
+        // Check result
+        assertEquals("Infinity", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 6:
+     * Gerichteter, gewichteter Graph
+     * i = 2, j = 1, k = 1
+     */
+    @Test public void testcase_6() throws Exception {
+        // Setup graph
+        setupFromFile(6);
+
+        // Check result
+        assertEquals("12.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 7:
+     * Gerichteter, gewichteter Graph
+     * i = 0, j = 2, k = 2
+     */
+    @Test public void testcase_7() throws Exception {
+        // Setup graph
+        setupFromFile(7);
+
+        // Check result
+        assertEquals("9.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 8:
+     * Gerichteter, gewichteter Graph
+     * i = 2, j = 1, k = 4
+     */
+    @Test public void testcase_8() throws Exception {
+        // Setup graph
+        setupFromFile(8);
+
+        // Check result
+        assertEquals("7.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 9:
+     * Gerichteter, gewichteter Graph
+     * i = 0, j = 2, k = 4
+     */
+    @Test public void testcase_9() throws Exception {
+        // Setup graph
+        setupFromFile(9);
+
+        // Check result
+        assertEquals("4.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 10:
+     * Gerichteter, gewichteter Graph
+     * mit negativem Zyklus
+     */
+    @Test public void testcase_10() throws Exception {
+        // Setup graph
+        setupFromFile(10);
+
+        // Check result
+        assertEquals(FloydWarshall.NEGATIVE_CYCLE, graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 11:
+     * Gerichteter, gewichteter Graph
+     * mit negativen Kanten
+     */
+    @Test public void testcase_11() throws Exception {
+        // Setup graph
+        setupFromFile(11);
+
+        // Check result
+        assertEquals("4.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 12:
+     * Ungerichteter, gewichteter Graph
+     */
+    @Test public void testcase_12() throws Exception {
+        // Setup graph
+        setupFromFile(12);
+
+        // Check result
+        assertEquals("8.0", graph.shortestPath(i, j, k ));
+    }
+
+    /**
+     * Testcase 13:
+     * Nicht zusammenhängender Graph
+     */
+    @Test public void testcase_13() throws Exception {
+        // Setup graph
+        setupFromFile(13);
+
+        // Check result
+        assertEquals("Infinity", graph.shortestPath(i, j, k ));
+    }
+
+
+    /**
+     * Random 1:
+     * Zufälliger Graph, verglichen mit FloydWarshall, schrittweise fortgesetzt
+     */
+    @Test public void random_1() {
+        FloydWarshall reference = setupRandom(150);
+
+        for (int pivots : new int[]{0, 20, 21, 90, 150}) {
+            assertSameAsReference(reference, pivots);
+            assertEquals(pivots, graph.getPivots());
+        }
+    }
+
+    /**
+     * Resume 1:
+     * Weniger Zwischenknoten beginnen wieder bei der Adjazenzmatrix
+     */
+    @Test public void resume_1() {
+        FloydWarshall reference = setupRandom(150);
+
+        for (int pivots : new int[]{90, 20, 0, 150, 21}) {
+            assertSameAsReference(reference, pivots);
+            assertEquals(pivots, graph.getPivots());
+        }
+    }
+
+    /**
+     * Resume 2:
+     * Nach dem Einfügen einer Kante wird neu gerechnet
+     */
+    @Test public void resume_2() throws Exception {
+        setupFromFile(8);
+        assertEquals("7.0", graph.shortestPath(i, j, k));
+
+        graph.addEdge(i, j, 1);
+        assertEquals("1.0", graph.shortestPath(i, j, k));
+    }
+
+    /**
+     * Overflow 1:
+     * Grosse endliche Kosten summieren sich nicht zu unendlich
+     */
+    @Test public void overflow_1() {
+        graph = factory.apply(3, FloydWarshall.DEFAULT_TILE_SIZE);
+        graph.addEdge(0, 1, big);
+        graph.addEdge(1, 2, big);
+
+        assertTrue(graph.relax(3));
+        assertEquals(largest, graph.costs(0, 2), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, graph.costs(2, 0), 0.0);
+    }
+
+    /**
+     * Overflow 2:
+     * Nicht darstellbare Kosten werden abgelehnt
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void overflow_2() {
+        graph = factory.apply(2, FloydWarshall.DEFAULT_TILE_SIZE);
+        graph.addEdge(0, 1, 2 * largest + 2 * big);
+    }
+}